@@ -4,6 +4,7 @@ import { permitService } from '../services';
 export const usePermits = () => {
   const [permits, setPermits] = useState([]);
   const [permit, setPermit] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
 
@@ -22,6 +23,23 @@ export const usePermits = () => {
     }
   }, []);
 
+  // One page of list rows; pass the previous nextCursor to append the following page
+  const fetchSummaries = useCallback(async (filters = {}, cursor = null) => {
+    setLoading(true);
+    setError(null);
+    try {
+      const page = await permitService.getSummaries({ ...filters, cursor });
+      setPermits((current) => (cursor ? [...current, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
+      return page;
+    } catch (err) {
+      setError(err.message);
+      throw err;
+    } finally {
+      setLoading(false);
+    }
+  }, []);
+
   const fetchById = useCallback(async (id) => {
     setLoading(true);
     setError(null);
@@ -143,7 +161,9 @@ export const usePermits = () => {
     permit,
     loading,
     error,
+    nextCursor,
     fetchAll,
+    fetchSummaries,
     fetchById,
     fetchByVisitor,
     fetchByPIC,
@@ -24,36 +24,81 @@ const CheckedInUsers = () => {
     }
   };
 
+  const applyStats = (data) => {
+    setStats({
+      totalActive: data.activeVisitors || 0,
+      todayCheckIns: data.todayCheckIns || 0,
+      todayCheckOuts: data.todayCheckOuts || 0
+    });
+  };
+
   // Load stats
   const loadStats = async () => {
     try {
       const data = await accessService.getStats();
-      setStats({
-        totalActive: data.activeVisitors || 0,
-        todayCheckIns: data.todayCheckIns || 0,
-        todayCheckOuts: data.todayCheckOuts || 0
-      });
+      applyStats(data);
     } catch (err) {
       console.error('Failed to load stats:', err);
     }
   };
 
-  // Initial load
+  // Apply a live event from the access stream
+  const handleStreamEvent = (event, data) => {
+    switch (event) {
+      case 'snapshot':
+        setCheckedInUsers(data.checkedIn || []);
+        applyStats(data.stats || {});
+        setLoading(false);
+        break;
+      case 'occupancy':
+        applyStats(data);
+        break;
+      case 'check-in':
+        if (data.visitor) {
+          setCheckedInUsers(prev => [data.visitor, ...prev.filter(u => u.permitId !== data.permitId)]);
+        }
+        break;
+      case 'check-out':
+        setCheckedInUsers(prev => prev.filter(u => u.permitId !== data.permitId));
+        break;
+      default:
+        break;
+    }
+  };
+
+  // Live updates via the access event stream; fall back to polling if it drops
   useEffect(() => {
-    const loadData = async () => {
+    const controller = new AbortController();
+    let interval = null;
+
+    const startPolling = async () => {
+      if (interval) return;
       setLoading(true);
       await Promise.all([loadCheckedInUsers(), loadStats()]);
       setLoading(false);
+
+      // Auto-refresh every 30 seconds
+      interval = setInterval(() => {
+        loadCheckedInUsers();
+        loadStats();
+      }, 30000);
     };
-    loadData();
 
-    // Auto-refresh every 30 seconds
-    const interval = setInterval(() => {
-      loadCheckedInUsers();
-      loadStats();
-    }, 30000);
+    accessService.streamEvents(handleStreamEvent, controller.signal)
+      .then(() => {
+        if (!controller.signal.aborted) startPolling();
+      })
+      .catch(err => {
+        if (!controller.signal.aborted) {
+          console.error('Access event stream unavailable, polling instead:', err);
+          startPolling();
+        }
+      });
 
-    return () => clearInterval(interval);
+    return () => {
+      controller.abort();
+      if (interval) clearInterval(interval);
+    };
   }, []);
 
   // Manual refresh
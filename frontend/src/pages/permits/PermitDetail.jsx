@@ -8,6 +8,7 @@ const PermitDetail = () => {
   const { id } = useParams();
   const { permit, loading, error, fetchById } = usePermits();
   const [showQRModal, setShowQRModal] = useState(false);
+  const [qrImageSrc, setQrImageSrc] = useState(null);
 
   useEffect(() => {
     if (id) {
@@ -15,6 +16,29 @@ const PermitDetail = () => {
     }
   }, [id, fetchById]);
 
+  // Load the QR image from its cacheable endpoint
+  useEffect(() => {
+    if (!permit?.id || !permit.qrCodeVersion) {
+      setQrImageSrc(null);
+      return undefined;
+    }
+
+    let objectUrl = null;
+    let cancelled = false;
+    permitService.getQRCodeImage(permit.id, permit.qrCodeVersion)
+      .then((blob) => {
+        if (cancelled) return;
+        objectUrl = URL.createObjectURL(blob);
+        setQrImageSrc(objectUrl);
+      })
+      .catch((err) => console.error('Failed to load QR code:', err));
+
+    return () => {
+      cancelled = true;
+      if (objectUrl) URL.revokeObjectURL(objectUrl);
+    };
+  }, [permit?.id, permit?.qrCodeVersion]);
+
   const handlePrint = () => {
     window.print();
   };
@@ -109,7 +133,7 @@ const PermitDetail = () => {
           <Button variant="outline" icon={<i className="ri-printer-line"></i>} onClick={handlePrint}>
             Print
           </Button>
-          {(permit.status === 'APPROVED' || permit.status === 'ACTIVE') && (permit.qrCode || permit.qrCodeBase64) && (
+          {(permit.status === 'APPROVED' || permit.status === 'ACTIVE') && qrImageSrc && (
             <Button icon={<i className="ri-qr-code-line"></i>} onClick={() => setShowQRModal(true)}>
               Show QR Code
             </Button>
@@ -268,12 +292,12 @@ const PermitDetail = () => {
         {/* Sidebar */}
         <div className="space-y-6">
           {/* QR Code (if approved) */}
-          {(permit.status === 'APPROVED' || permit.status === 'ACTIVE') && (permit.qrCode || permit.qrCodeBase64) && (
+          {(permit.status === 'APPROVED' || permit.status === 'ACTIVE') && qrImageSrc && (
             <Card className="text-center">
               <h3 className="font-bold text-dark-600 mb-4">Access QR Code</h3>
               <div className="bg-white p-4 rounded-xl border border-gray-100 inline-block mb-4">
                 <img
-                  src={permit.qrCodeBase64 ? `data:image/png;base64,${permit.qrCodeBase64}` : permit.qrCode}
+                  src={qrImageSrc}
                   alt="QR Code"
                   className="w-48 h-48 object-contain"
                 />
@@ -373,7 +397,7 @@ const PermitDetail = () => {
 
                 <div className="bg-white p-4 rounded-xl border-2 border-dashed border-gray-200 inline-block mb-6 relative group">
                   <img
-                    src={permit.qrCodeBase64 ? `data:image/png;base64,${permit.qrCodeBase64}` : permit.qrCode}
+                    src={qrImageSrc}
                     alt="QR Code"
                     className="w-64 h-64 object-contain"
                   />
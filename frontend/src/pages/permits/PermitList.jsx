@@ -6,28 +6,40 @@ import { usePermits } from '../../hooks';
 
 const PermitList = () => {
   const { user, isVisitor, isPIC } = useAuth();
-  const { permits, loading, fetchAll, fetchByVisitor, fetchByPIC } = usePermits();
+  const { permits, loading, nextCursor, fetchSummaries } = usePermits();
   const [searchTerm, setSearchTerm] = useState('');
   const [statusFilter, setStatusFilter] = useState('all');
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     loadPermits();
-  }, [user]);
+  }, [user, statusFilter]);
+
+  const getFilters = () => ({
+    visitorId: isVisitor ? user.userId : undefined,
+    picId: isPIC ? user.userId : undefined,
+    status: statusFilter === 'all' ? undefined : statusFilter,
+  });
 
   const loadPermits = async () => {
     try {
-      if (isVisitor) {
-        await fetchByVisitor(user.userId);
-      } else if (isPIC) {
-        await fetchByPIC(user.userId);
-      } else {
-        await fetchAll();
-      }
+      await fetchSummaries(getFilters());
     } catch (error) {
       console.error('Error loading permits:', error);
     }
   };
 
+  const loadMore = async () => {
+    setLoadingMore(true);
+    try {
+      await fetchSummaries(getFilters(), nextCursor);
+    } catch (error) {
+      console.error('Error loading permits:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const getStatusBadge = (status) => {
     const config = {
       PENDING_PIC: { variant: 'warning', label: 'Pending PIC' },
@@ -49,12 +61,11 @@ const PermitList = () => {
     return date.toLocaleDateString('id-ID', { day: '2-digit', month: 'short', year: 'numeric' });
   };
 
+  // Status is filtered by the server; search only narrows the pages loaded so far
   const filteredPermits = permits.filter(permit => {
-    const matchesSearch = permit.permitNumber?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                         permit.visitPurpose?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                         permit.dataCenter?.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesStatus = statusFilter === 'all' || permit.status === statusFilter;
-    return matchesSearch && matchesStatus;
+    return permit.permitNumber?.toLowerCase().includes(searchTerm.toLowerCase()) ||
+           permit.visitPurpose?.toLowerCase().includes(searchTerm.toLowerCase()) ||
+           permit.dataCenter?.toLowerCase().includes(searchTerm.toLowerCase());
   });
 
   const statusOptions = ['all', 'PENDING_PIC', 'PENDING_MANAGER', 'APPROVED', 'ACTIVE', 'REJECTED'];
@@ -106,7 +117,7 @@ const PermitList = () => {
       </Card>
 
       {/* Loading State */}
-      {loading && (
+      {loading && !loadingMore && (
         <div className="flex justify-center py-12">
           <div className="flex flex-col items-center gap-3">
             <i className="ri-loader-4-line text-4xl text-primary-600 animate-spin"></i>
@@ -116,10 +127,10 @@ const PermitList = () => {
       )}
 
       {/* Permits Grid */}
-      {!loading && (
+      {(!loading || loadingMore) && (
         <div className="grid md:grid-cols-2 lg:grid-cols-3 gap-6">
-          {filteredPermits.map((permit, index) => (
-            <Card key={index} hover className="relative">
+          {filteredPermits.map((permit) => (
+            <Card key={permit.id} hover className="relative">
               <div className="flex items-start justify-between mb-4">
                 <span className="text-lg font-bold text-primary-600">{permit.permitNumber}</span>
                 {getStatusBadge(permit.status)}
@@ -138,7 +149,7 @@ const PermitList = () => {
                 </div>
                 <div className="flex items-center gap-2">
                   <i className="ri-user-line text-primary-500"></i>
-                  <span>PIC: {permit.pic?.fullName || 'N/A'}</span>
+                  <span>PIC: {permit.picName || 'N/A'}</span>
                 </div>
               </div>
 
@@ -159,6 +170,14 @@ const PermitList = () => {
         </div>
       )}
 
+      {nextCursor && (!loading || loadingMore) && (
+        <div className="flex justify-center">
+          <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </Button>
+        </div>
+      )}
+
       {!loading && filteredPermits.length === 0 && (
         <Card className="text-center py-12">
           <i className="ri-file-search-line text-5xl text-gray-300 mb-4"></i>
@@ -39,8 +39,22 @@ export const accessService = {
     return await api.post(`/access/door?rfidTag=${rfidTag}&location=${encodeURIComponent(location)}&accessType=${accessType}`, {});
   },
 
-  async getLogs() {
-    return await api.get('/access/logs');
+  // Get one page of access logs (newest first); pass page.nextCursor to continue
+  async getLogPage(filters = {}) {
+    const params = new URLSearchParams();
+    Object.entries(filters).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== '') {
+        params.append(key, value);
+      }
+    });
+    const query = params.toString();
+    return await api.get(query ? `/access/logs?${query}` : '/access/logs');
+  },
+
+  // Get the most recent access logs
+  async getLogs(filters = {}) {
+    const page = await this.getLogPage(filters);
+    return page.items;
   },
 
   async getPermitLogs(permitId) {
@@ -66,6 +80,11 @@ export const accessService = {
   async getCheckedInVisitors() {
     return await api.get('/access/checked-in');
   },
+
+  // Live access events: snapshot, check-in, check-out, access, access-denied, occupancy
+  async streamEvents(onEvent, signal) {
+    return await api.stream('/access/stream', onEvent, signal);
+  },
 };
 
 export default accessService;
@@ -129,6 +129,52 @@ const api = {
       throw error;
     }
   },
+
+  // Server-Sent Events over fetch (EventSource cannot send the Authorization header).
+  // Calls onEvent(name, data) for each event until the stream ends or signal aborts.
+  async stream(endpoint, onEvent, signal) {
+    const response = await fetch(`${API_BASE_URL}${endpoint}`, {
+      headers: { ...this.getHeaders(), Accept: 'text/event-stream' },
+      signal,
+    });
+    this.handleResponse(response);
+    if (!response.ok || !response.body) {
+      throw new Error('Stream request failed');
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      let boundary;
+      while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+        const block = buffer.slice(0, boundary);
+        buffer = buffer.slice(boundary + 2);
+
+        let name = 'message';
+        const dataLines = [];
+        block.split('\n').forEach((line) => {
+          if (line.startsWith('event:')) name = line.slice(6).trim();
+          else if (line.startsWith('data:')) dataLines.push(line.slice(5).trimStart());
+        });
+        if (dataLines.length === 0) continue; // heartbeat comment
+
+        const raw = dataLines.join('\n');
+        let data = raw;
+        try {
+          data = JSON.parse(raw);
+        } catch {
+          // plain text payload
+        }
+        onEvent(name, data);
+      }
+    }
+  },
 };
 
 export default api;
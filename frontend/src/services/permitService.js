@@ -10,6 +10,11 @@ export const permitService = {
     return await api.get(`/permits/${id}`);
   },
 
+  // Permit plus approvals, recent access logs and ID card status
+  async getDetail(id) {
+    return await api.get(`/permits/${id}/detail`);
+  },
+
   async getByNumber(permitNumber) {
     return await api.get(`/permits/number/${permitNumber}`);
   },
@@ -30,6 +35,15 @@ export const permitService = {
     return await api.get('/permits');
   },
 
+  // Lean list rows, newest first; pass the previous page's nextCursor to continue
+  async getSummaries(filters = {}) {
+    const params = new URLSearchParams();
+    Object.entries(filters).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== '') params.append(key, value);
+    });
+    return await api.get(`/permits/summary?${params.toString()}`);
+  },
+
   async update(id, permitData) {
     return await api.put(`/permits/${id}`, permitData);
   },
@@ -52,6 +66,11 @@ export const permitService = {
     return await api.post(`/permits/${id}/upload`, formData);
   },
 
+  // QR code PNG; the version makes the URL content-addressed so the browser can cache it
+  async getQRCodeImage(id, version) {
+    return await api.get(`/permits/${id}/qrcode?v=${encodeURIComponent(version)}`, { responseType: 'blob' });
+  },
+
   async viewDocument(id) {
     const response = await fetch(`${api.defaults?.baseURL || (import.meta.env.VITE_API_URL || 'http://localhost:8080/api')}/permits/${id}/document`, {
       headers: api.getHeaders(),
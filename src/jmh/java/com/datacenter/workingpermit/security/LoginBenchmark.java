@@ -0,0 +1,98 @@
+package com.datacenter.workingpermit.security;
+
+import com.datacenter.workingpermit.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput per core: what AuthController.login does (one BCrypt check
+ * in the authentication provider, then access and refresh token), against the
+ * previous path that verified the password a second time. Run per BCrypt cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private static final String USERNAME = "security1";
+    private static final String PASSWORD = "security123";
+
+    @Param({ "10", "12" })
+    public int strength;
+
+    private PasswordEncoder passwordEncoder;
+    private DaoAuthenticationProvider authenticationProvider;
+    private JwtTokenProvider tokenProvider;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        user = User.builder()
+                .id(1L)
+                .username(USERNAME)
+                .password(passwordEncoder.encode(PASSWORD))
+                .email("security1@datacenter.com")
+                .fullName("Security One")
+                .role(User.UserRole.SECURITY)
+                .build();
+
+        authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserDetailsService(username -> {
+            if (!USERNAME.equals(username)) {
+                throw new UsernameNotFoundException(username);
+            }
+            return user;
+        });
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 86_400_000L);
+        tokenProvider.init();
+    }
+
+    @Benchmark
+    public void login(Blackhole blackhole) {
+        Authentication authentication = authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        issueTokens((UserDetails) authentication.getPrincipal(), blackhole);
+    }
+
+    @Benchmark
+    public void loginVerifyingTwice(Blackhole blackhole) {
+        Authentication authentication = authenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        // The second BCrypt check the login used to make after the provider had already verified it
+        if (!passwordEncoder.matches(PASSWORD, user.getPassword())) {
+            throw new IllegalStateException("Invalid credentials");
+        }
+        issueTokens((UserDetails) authentication.getPrincipal(), blackhole);
+    }
+
+    private void issueTokens(UserDetails userDetails, Blackhole blackhole) {
+        String accessToken = tokenProvider.generateToken(userDetails);
+        blackhole.consume(accessToken);
+        blackhole.consume(tokenProvider.generateRefreshToken(userDetails));
+        blackhole.consume(tokenProvider.getExpirationFromToken(accessToken));
+    }
+}
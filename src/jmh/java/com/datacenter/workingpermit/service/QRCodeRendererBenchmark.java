@@ -0,0 +1,93 @@
+package com.datacenter.workingpermit.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR PNG rendering: QRCodeRenderer (single and batch) against the
+ * QRCodeWriter + MatrixToImageWriter path it replaced
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class QRCodeRendererBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    private QRCodeRenderer renderer;
+    private List<String> contents;
+    private String single;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        renderer = new QRCodeRenderer();
+        ReflectionTestUtils.setField(renderer, "width", 300);
+        ReflectionTestUtils.setField(renderer, "height", 300);
+        ReflectionTestUtils.setField(renderer, "parallelism", 4);
+        renderer.init();
+
+        contents = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            contents.add("PERMIT-" + (1000 + i) + "-" + UUID.randomUUID());
+        }
+        single = contents.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        renderer.shutdown();
+    }
+
+    @Benchmark
+    public byte[] singleRenderer() throws Exception {
+        return renderer.render(single);
+    }
+
+    @Benchmark
+    public byte[] singleLegacy() throws Exception {
+        return legacyRender(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<byte[]> batchRenderer() {
+        return renderer.generateBatch(contents);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<byte[]> batchLegacy() throws Exception {
+        List<byte[]> images = new ArrayList<>(contents.size());
+        for (String content : contents) {
+            images.add(legacyRender(content));
+        }
+        return images;
+    }
+
+    // What QRCodeService did before the renderer: full BitMatrix, BufferedImage and ImageIO
+    private static byte[] legacyRender(String content) throws Exception {
+        BitMatrix bitMatrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 300, 300);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+        return outputStream.toByteArray();
+    }
+}
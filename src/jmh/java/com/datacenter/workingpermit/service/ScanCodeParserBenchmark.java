@@ -0,0 +1,40 @@
+package com.datacenter.workingpermit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate scan parsing: ScanCodeParser against the regex chain it replaced
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ScanCodeParserBenchmark {
+
+    @Param({
+            "123456",
+            " 123 456 ",
+            "otp:654321",
+            "PERMIT-WP-20261017-000123-OTP-111222",
+            "QR-AUDIT-1769700507200",
+            "PERMIT-12-a1b2c3d4-e5f6-a7b8-c9d0-e1f2a3b4c5d6"
+    })
+    public String scannedCode;
+
+    @Benchmark
+    public String parser() {
+        return ScanCodeParser.extractOtp(scannedCode);
+    }
+
+    @Benchmark
+    public String regex() {
+        return LegacyScanCodeExtractor.extract(scannedCode);
+    }
+}
@@ -0,0 +1,161 @@
+package com.datacenter.workingpermit.service.otp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InMemoryOtpStore against the ConcurrentHashMap it replaced, with the given
+ * number of outstanding OTPs. Issue/verify cycles through the permits so the
+ * table stays at its size; purge runs with nothing due, which is the common
+ * case for the expiry sweeper. scanWhileIssuing has three gate-scan threads
+ * look up codes while a fourth issues and verifies, to show whether lookups
+ * wait on writers (run it on at least four cores).
+ *
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="InMemoryOtpStoreBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class InMemoryOtpStoreBenchmark {
+
+    private static final long EXPIRY_MS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"1000", "50000"})
+    private int outstanding;
+
+    private String[] codes;
+    private InMemoryOtpStore store;
+    private LegacyOtpMap legacy;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codes = new String[outstanding];
+        store = new InMemoryOtpStore(new DefaultListableBeanFactory().getBeanProvider(OtpStoreListener.class));
+        legacy = new LegacyOtpMap();
+        long expiresAt = System.currentTimeMillis() + EXPIRY_MS;
+        for (int i = 0; i < outstanding; i++) {
+            codes[i] = String.format("%07d", i);
+            store.put(i, codes[i], expiresAt);
+            legacy.put(i, codes[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean issueAndVerify() {
+        int permitId = nextPermit();
+        store.put(permitId, codes[permitId], System.currentTimeMillis() + EXPIRY_MS);
+        return store.verify(permitId, codes[permitId]);
+    }
+
+    @Benchmark
+    public boolean issueAndVerifyLegacy() {
+        int permitId = nextPermit();
+        legacy.put(permitId, codes[permitId]);
+        return legacy.verify(permitId, codes[permitId]);
+    }
+
+    @Benchmark
+    public long expiryLookup() {
+        return store.getExpiresAt(nextPermit());
+    }
+
+    @Benchmark
+    public boolean expiryLookupLegacy() {
+        return legacy.isExpired(nextPermit());
+    }
+
+    @Benchmark
+    public long codeLookup() {
+        return store.findPermitId(codes[nextPermit()]);
+    }
+
+    @Benchmark
+    @Group("scanWhileIssuing")
+    @GroupThreads(3)
+    public long scan() {
+        return store.findPermitId(codes[nextPermit()]);
+    }
+
+    @Benchmark
+    @Group("scanWhileIssuing")
+    @GroupThreads(1)
+    public boolean issue() {
+        return issueAndVerify();
+    }
+
+    @Benchmark
+    public int purge() {
+        return store.purgeExpired();
+    }
+
+    @Benchmark
+    public int purgeLegacy() {
+        return legacy.cleanup();
+    }
+
+    private int nextPermit() {
+        int permitId = next;
+        next = permitId + 1 == outstanding ? 0 : permitId + 1;
+        return permitId;
+    }
+
+    /**
+     * The OTPService map before the store: string keys, LocalDateTime
+     * comparisons and a full removeIf on cleanup
+     */
+    static final class LegacyOtpMap {
+        private final Map<String, OTPData> otps = new ConcurrentHashMap<>();
+
+        void put(long permitId, String code) {
+            otps.put("PERMIT-" + permitId, new OTPData(code, LocalDateTime.now().plusSeconds(EXPIRY_MS / 1000)));
+        }
+
+        boolean verify(long permitId, String code) {
+            String key = "PERMIT-" + permitId;
+            OTPData otpData = otps.get(key);
+            if (otpData == null) {
+                return false;
+            }
+            if (LocalDateTime.now().isAfter(otpData.expiryTime)) {
+                otps.remove(key);
+                return false;
+            }
+            if (otpData.code.equals(code)) {
+                otps.remove(key);
+                return true;
+            }
+            return false;
+        }
+
+        boolean isExpired(long permitId) {
+            OTPData otpData = otps.get("PERMIT-" + permitId);
+            return otpData == null || LocalDateTime.now().isAfter(otpData.expiryTime);
+        }
+
+        int cleanup() {
+            int before = otps.size();
+            LocalDateTime now = LocalDateTime.now();
+            otps.entrySet().removeIf(entry -> now.isAfter(entry.getValue().expiryTime));
+            return before - otps.size();
+        }
+
+        private record OTPData(String code, LocalDateTime expiryTime) {
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.datacenter.workingpermit.config;
 
 import com.datacenter.workingpermit.model.*;
 import com.datacenter.workingpermit.repository.*;
+import com.datacenter.workingpermit.service.IdentifierService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -10,9 +11,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @RequiredArgsConstructor
@@ -24,8 +23,7 @@ public class DataSeeder implements CommandLineRunner {
         private final ApprovalRepository approvalRepository;
         private final TempIdCardRepository idCardRepository;
         private final PasswordEncoder passwordEncoder;
-
-        private final AtomicInteger permitCounter = new AtomicInteger(1);
+        private final IdentifierService identifierService;
 
         @Override
         @Transactional
@@ -121,8 +119,7 @@ public class DataSeeder implements CommandLineRunner {
         }
 
         private String generatePermitNumber() {
-                String today = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-                return String.format("WP-%s-%04d", today, permitCounter.getAndIncrement());
+                return identifierService.nextPermitNumber();
         }
 
         private void createPermitsForVisitor(User visitor, User pic, User manager) {
@@ -215,7 +212,7 @@ public class DataSeeder implements CommandLineRunner {
                 // during checkout
                 TempIdCard idCard4 = TempIdCard.builder()
                                 .workingPermit(permit4)
-                                .cardNumber("TMP-" + System.currentTimeMillis())
+                                .cardNumber(identifierService.nextCardNumber())
                                 .rfidTag("RF-" + java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase())
                                 .issuedAt(LocalDateTime.now().minusHours(1))
                                 .expiresAt(permit4.getScheduledEndTime())
@@ -1,6 +1,8 @@
 package com.datacenter.workingpermit.config;
 
 import com.datacenter.workingpermit.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -25,9 +27,13 @@ import java.util.Arrays;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+        /**
+         * BCrypt with a configurable cost. Hashes stored at a lower cost are
+         * upgraded on the next successful login (see UserRetrievalService).
+         */
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
+        public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+                return new BCryptPasswordEncoder(strength);
         }
 
         @Bean
@@ -67,6 +73,8 @@ public class SecurityConfig {
                                                 .frameOptions(frame -> frame.sameOrigin()))
 
                                 .authorizeHttpRequests(auth -> auth
+                                                // Async dispatches (SSE completion) were authorized on the original request
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 .requestMatchers(
                                                                 "/",
                                                                 "/index.html",
@@ -1,7 +1,11 @@
 package com.datacenter.workingpermit.controller;
 
+import com.datacenter.workingpermit.dto.AccessLogPage;
+import com.datacenter.workingpermit.dto.AccessLogQuery;
 import com.datacenter.workingpermit.dto.AccessLogResponse;
 import com.datacenter.workingpermit.dto.CheckInRequest;
+import com.datacenter.workingpermit.dto.LocationOccupant;
+import com.datacenter.workingpermit.dto.OTPScanRequest;
 import com.datacenter.workingpermit.model.AccessLog;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.model.TempIdCard;
@@ -9,9 +13,14 @@ import com.datacenter.workingpermit.service.CameraSyncService;
 import com.datacenter.workingpermit.service.accesscontrol.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,11 +35,16 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AccessControlController {
 
+    private static final int MAX_SCAN_BATCH_SIZE = 500;
+
     private final CheckInService checkInService;
     private final CheckOutService checkOutService;
     private final DoorAccessService doorAccessService;
     private final AccessLogService accessLogService;
     private final CameraSyncService cameraSyncService;
+    private final AccessLogWriter accessLogWriter;
+    private final OccupancyService occupancyService;
+    private final AccessEventStreamService accessEventStreamService;
 
     /**
      * Scan barcode/QR OTP and verify
@@ -49,18 +63,23 @@ public class AccessControlController {
 
         CameraSyncService.OTPScanResult result = cameraSyncService.scanOTPBarcode(scannedCode.trim());
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", result.isSuccess());
-        response.put("message", result.getMessage());
+        return ResponseEntity.ok(toScanResponse(result));
+    }
 
-        if (result.isSuccess()) {
-            response.put("permitId", result.getPermitId());
-            response.put("permitNumber", result.getPermitNumber());
-            response.put("visitorName", result.getVisitorName());
-            response.put("company", result.getCompany());
-            response.put("dataCenter", result.getDataCenter());
+    /**
+     * Replay buffered turnstile scans in one call
+     * POST /api/access/scan-otp/batch
+     */
+    @PostMapping("/scan-otp/batch")
+    public ResponseEntity<List<Map<String, Object>>> scanOTPBarcodeBatch(@RequestBody List<OTPScanRequest> scans) {
+        if (scans.size() > MAX_SCAN_BATCH_SIZE) {
+            throw new IllegalArgumentException("Maksimal " + MAX_SCAN_BATCH_SIZE + " scan per batch");
         }
 
+        List<Map<String, Object>> response = cameraSyncService.scanOTPBarcodes(scans).stream()
+                .map(this::toScanResponse)
+                .toList();
+
         return ResponseEntity.ok(response);
     }
 
@@ -213,25 +232,46 @@ public class AccessControlController {
      * GET /api/access/logs/location/{location}
      */
     @GetMapping("/logs/location/{location}")
-    public ResponseEntity<List<AccessLogResponse>> getLocationAccessLogs(@PathVariable String location) {
-        List<AccessLog> logs = accessLogService.getAccessLogsByLocation(location);
-        List<AccessLogResponse> response = logs.stream()
-                .map(AccessLogResponse::fromEntity)
-                .toList();
+    public ResponseEntity<Page<AccessLogResponse>> getLocationAccessLogs(
+            @PathVariable String location,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(accessLogService.getAccessLogsByLocation(location, from, to, page, size));
+    }
+
+    /**
+     * Get occupant count per location
+     * GET /api/access/occupancy
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<Map<String, Long>> getOccupancy() {
+        return ResponseEntity.ok(accessLogService.getOccupancyByLocation());
+    }
+
+    /**
+     * Get visitors currently inside a location
+     * GET /api/access/occupancy/{location}
+     */
+    @GetMapping("/occupancy/{location}")
+    public ResponseEntity<Map<String, Object>> getLocationOccupancy(@PathVariable String location) {
+        List<LocationOccupant> occupants = accessLogService.getLocationOccupants(location);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("location", location);
+        response.put("count", occupants.size());
+        response.put("occupants", occupants);
         return ResponseEntity.ok(response);
     }
 
     /**
-     * Get all access logs
-     * GET /api/access/logs
+     * Get access logs, newest first, one page at a time
+     * GET /api/access/logs?permitId=&userId=&location=&accessType=&status=&from=&to=&cursor=&limit=
      */
     @GetMapping("/logs")
-    public ResponseEntity<List<AccessLogResponse>> getAllAccessLogs() {
-        List<AccessLog> logs = accessLogService.getAllAccessLogs();
-        List<AccessLogResponse> response = logs.stream()
-                .map(AccessLogResponse::fromEntity)
-                .toList();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<AccessLogPage> getAccessLogs(AccessLogQuery query) {
+        return ResponseEntity.ok(accessLogService.getAccessLogPage(query));
     }
 
     /**
@@ -266,32 +306,50 @@ public class AccessControlController {
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getAccessStats() {
-        Map<String, Object> stats = accessLogService.getTodayStats();
+        Map<String, Object> stats = occupancyService.getTodayStats();
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Live stream of check-in, check-out, access and occupancy events (Server-Sent Events)
+     * GET /api/access/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAccessEvents() {
+        return accessEventStreamService.subscribe();
+    }
+
+    /**
+     * Get access log write-behind queue metrics
+     * GET /api/access/logs/pipeline
+     */
+    @GetMapping("/logs/pipeline")
+    public ResponseEntity<Map<String, Object>> getAccessLogPipelineStats() {
+        return ResponseEntity.ok(accessLogWriter.getStats());
+    }
+
     /**
      * Get currently checked-in visitors (active in data center)
      * GET /api/access/checked-in
      */
     @GetMapping("/checked-in")
     public ResponseEntity<List<Map<String, Object>>> getCheckedInVisitors() {
-        List<WorkingPermit> activePermits = accessLogService.getCheckedInVisitors();
+        List<OccupancyService.CheckedInVisitor> visitors = occupancyService.getCheckedInVisitors();
 
-        List<Map<String, Object>> checkedInList = activePermits.stream()
-                .map(permit -> {
+        List<Map<String, Object>> checkedInList = visitors.stream()
+                .map(checkedIn -> {
                     Map<String, Object> visitor = new HashMap<>();
-                    visitor.put("permitId", permit.getId());
-                    visitor.put("permitNumber", permit.getPermitNumber());
-                    visitor.put("visitorName",
-                            permit.getVisitor() != null ? permit.getVisitor().getFullName() : "Unknown");
-                    visitor.put("visitorEmail", permit.getVisitor() != null ? permit.getVisitor().getEmail() : null);
-                    visitor.put("company", permit.getVisitor() != null ? permit.getVisitor().getCompany() : null);
-                    visitor.put("dataCenter", permit.getDataCenter() != null ? permit.getDataCenter().name() : null);
-                    visitor.put("checkInTime", permit.getActualCheckInTime());
-                    visitor.put("scheduledEndTime", permit.getScheduledEndTime());
-                    visitor.put("purpose", permit.getVisitPurpose());
-                    visitor.put("status", permit.getStatus().name());
+                    visitor.put("permitId", checkedIn.getPermitId());
+                    visitor.put("permitNumber", checkedIn.getPermitNumber());
+                    visitor.put("visitorName", checkedIn.getVisitorName());
+                    visitor.put("visitorEmail", checkedIn.getVisitorEmail());
+                    visitor.put("company", checkedIn.getCompany());
+                    visitor.put("dataCenter", checkedIn.getDataCenter() != null ? checkedIn.getDataCenter().name() : null);
+                    visitor.put("checkInTime", checkedIn.getCheckInTime());
+                    visitor.put("scheduledEndTime", checkedIn.getScheduledEndTime());
+                    visitor.put("purpose", checkedIn.getPurpose());
+                    visitor.put("location", occupancyService.getLocationOf(checkedIn.getPermitId()));
+                    visitor.put("status", WorkingPermit.PermitStatus.ACTIVE.name());
                     return visitor;
                 })
                 .toList();
@@ -299,6 +357,22 @@ public class AccessControlController {
         return ResponseEntity.ok(checkedInList);
     }
 
+    private Map<String, Object> toScanResponse(CameraSyncService.OTPScanResult result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", result.isSuccess());
+        response.put("message", result.getMessage());
+
+        if (result.isSuccess()) {
+            response.put("permitId", result.getPermitId());
+            response.put("permitNumber", result.getPermitNumber());
+            response.put("visitorName", result.getVisitorName());
+            response.put("company", result.getCompany());
+            response.put("dataCenter", result.getDataCenter());
+        }
+
+        return response;
+    }
+
     /**
      * Debug endpoint: Get all permits with OTP codes
      * GET /api/access/debug/otp-permits
@@ -1,6 +1,7 @@
 package com.datacenter.workingpermit.controller;
 
 import com.datacenter.workingpermit.dto.ApprovalRequest;
+import com.datacenter.workingpermit.dto.BatchApprovalRequest;
 import com.datacenter.workingpermit.model.Approval;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.service.approval.ApprovalActionService;
@@ -73,6 +74,30 @@ public class ApprovalController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Manager Approval - approve many permits at once
+     * POST /api/approvals/manager/approve-batch
+     */
+    @PostMapping("/manager/approve-batch")
+    public ResponseEntity<Map<String, Object>> managerApproveBatch(
+            @Valid @RequestBody BatchApprovalRequest request,
+            @RequestParam Long managerId) {
+
+        User manager = new User(); // Mock - in real implementation get from authentication
+        manager.setId(managerId);
+
+        Map<String, Object> result = approvalActionService.managerApproveBatch(
+                request.getPermitIds(), manager, request.getComments());
+
+        List<?> approved = (List<?>) result.get("approved");
+        Map<String, Object> response = new HashMap<>(result);
+        response.put("success", true);
+        response.put("message", approved.size() + " permits approved by Manager. "
+                + "QR Codes and OTPs will be sent shortly.");
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get pending approvals for PIC
      * GET /api/approvals/pic/{picId}/pending
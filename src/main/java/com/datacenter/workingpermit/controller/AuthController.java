@@ -4,8 +4,8 @@ import com.datacenter.workingpermit.dto.UserRegistrationRequest;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.security.JwtTokenProvider;
 import com.datacenter.workingpermit.service.user.UserActionService;
-import com.datacenter.workingpermit.service.user.UserAuthService;
 import com.datacenter.workingpermit.service.user.UserRetrievalService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -27,7 +27,6 @@ public class AuthController {
 
     private final UserRetrievalService userRetrievalService;
     private final UserActionService userActionService;
-    private final UserAuthService userAuthService;
     private final JwtTokenProvider tokenProvider;
     private final AuthenticationManager authenticationManager;
 
@@ -50,13 +49,13 @@ public class AuthController {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
-        // Authenticate user
+        // Authenticate user - the only BCrypt check of the login
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password));
 
-        // Get user details
-        User user = userAuthService.authenticate(username, password);
+        // Principal is the User loaded by UserRetrievalService
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User user = (User) userDetails;
 
         // Generate JWT tokens
         String accessToken = tokenProvider.generateToken(userDetails);
@@ -90,9 +89,10 @@ public class AuthController {
     public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody Map<String, String> request) {
         String refreshToken = request.get("refreshToken");
 
-        if (refreshToken != null && tokenProvider.validateToken(refreshToken)) {
-            String username = tokenProvider.getUsernameFromToken(refreshToken);
-            UserDetails userDetails = userRetrievalService.loadUserByUsername(username);
+        Claims claims = refreshToken != null ? tokenProvider.parse(refreshToken) : null;
+        UserDetails userDetails = claims != null ? userRetrievalService.loadUserByUsername(claims.getSubject()) : null;
+
+        if (userDetails != null && isCurrentTokenVersion(claims, userDetails)) {
 
             String newAccessToken = tokenProvider.generateToken(userDetails);
             Date expiresAt = tokenProvider.getExpirationFromToken(newAccessToken);
@@ -112,20 +112,25 @@ public class AuthController {
         return ResponseEntity.badRequest().body(error);
     }
 
+    // Refresh tokens issued before a password change or disable are revoked
+    private boolean isCurrentTokenVersion(Claims claims, UserDetails userDetails) {
+        Integer tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        return tokenVersion == null
+                || !(userDetails instanceof User user)
+                || user.getTokenVersion() == tokenVersion.intValue();
+    }
+
     @PostMapping("/validate")
     public ResponseEntity<Map<String, Object>> validateToken(@RequestBody Map<String, String> request) {
         String token = request.get("token");
 
-        boolean valid = tokenProvider.validateToken(token);
+        Claims claims = token != null ? tokenProvider.parse(token) : null;
         Map<String, Object> response = new HashMap<>();
-        response.put("valid", valid);
-
-        if (valid) {
-            String username = tokenProvider.getUsernameFromToken(token);
-            Date expiration = tokenProvider.getExpirationFromToken(token);
+        response.put("valid", claims != null);
 
-            response.put("username", username);
-            response.put("expiresAt", expiration.getTime());
+        if (claims != null) {
+            response.put("username", claims.getSubject());
+            response.put("expiresAt", claims.getExpiration().getTime());
         }
 
         return ResponseEntity.ok(response);
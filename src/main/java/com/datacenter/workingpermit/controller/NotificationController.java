@@ -1,6 +1,8 @@
 package com.datacenter.workingpermit.controller;
 
 import com.datacenter.workingpermit.model.Notification;
+import com.datacenter.workingpermit.service.SmtpMailTransport;
+import com.datacenter.workingpermit.service.notification.NotificationDispatcher;
 import com.datacenter.workingpermit.service.notification.NotificationRetrievalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,8 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationRetrievalService notificationRetrievalService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final SmtpMailTransport mailTransport;
 
     /**
      * Get notifications for a user
@@ -73,6 +77,17 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Outbox delivery statistics
+     * GET /api/notifications/outbox
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        Map<String, Object> stats = new HashMap<>(notificationDispatcher.getStats());
+        stats.put("mailTransport", mailTransport.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * Get notification by ID
      * GET /api/notifications/{id}
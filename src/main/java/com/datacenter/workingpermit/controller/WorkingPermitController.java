@@ -1,20 +1,30 @@
 package com.datacenter.workingpermit.controller;
 
+import com.datacenter.workingpermit.dto.PermitDetail;
+import com.datacenter.workingpermit.dto.PermitPage;
+import com.datacenter.workingpermit.dto.PermitQuery;
 import com.datacenter.workingpermit.dto.WorkingPermitRequest;
 import com.datacenter.workingpermit.exception.ResourceNotFoundException;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.service.QRCodeImageCache;
 import com.datacenter.workingpermit.service.permit.PermitActionService;
 import com.datacenter.workingpermit.service.permit.PermitCreationService;
+import com.datacenter.workingpermit.service.permit.PermitExpirySweeper;
 import com.datacenter.workingpermit.service.permit.PermitRetrievalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for Working Permit management
@@ -28,6 +38,8 @@ public class WorkingPermitController {
     private final PermitCreationService permitCreationService;
     private final PermitRetrievalService permitRetrievalService;
     private final PermitActionService permitActionService;
+    private final QRCodeImageCache qrCodeImageCache;
+    private final PermitExpirySweeper permitExpirySweeper;
 
     /**
      * Create new working permit
@@ -61,6 +73,51 @@ public class WorkingPermitController {
         return ResponseEntity.ok(permit);
     }
 
+    /**
+     * Get permit with approvals, recent access logs and ID card status in one response
+     * GET /api/permits/{id}/detail
+     */
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<PermitDetail> getPermitDetail(@PathVariable Long id) {
+        PermitDetail detail = permitRetrievalService.getPermitDetail(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Permit not found"));
+        return ResponseEntity.ok(detail);
+    }
+
+    /**
+     * Get permit QR code image (PNG)
+     * GET /api/permits/{id}/qrcode?v={qrCodeVersion}
+     * The image is content-addressed: when v matches the current version the
+     * response may be cached indefinitely, otherwise clients revalidate via ETag.
+     */
+    @GetMapping("/{id}/qrcode")
+    public ResponseEntity<byte[]> getPermitQRCode(
+            @PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+        String qrCodeData = permitRetrievalService.getQRCodeData(id)
+                .orElseThrow(() -> new ResourceNotFoundException("QR code not available for this permit"));
+
+        String key = QRCodeImageCache.keyOf(qrCodeData);
+        String etag = "\"" + key + "\"";
+        CacheControl cacheControl = key.equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(qrCodeImageCache.getImage(id, qrCodeData));
+    }
+
     /**
      * Get permit by permit number
      * GET /api/permits/number/{permitNumber}
@@ -105,6 +162,24 @@ public class WorkingPermitController {
         return ResponseEntity.ok(permits);
     }
 
+    /**
+     * Get permit summaries for list views, newest first, one page at a time
+     * GET /api/permits/summary?visitorId=&picId=&status=&dataCenter=&cursor=&limit=
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<PermitPage> getPermitSummaries(PermitQuery query) {
+        return ResponseEntity.ok(permitRetrievalService.getPermitSummaryPage(query));
+    }
+
+    /**
+     * Expiry sweeper counters and watermark
+     * GET /api/permits/expiry-sweep
+     */
+    @GetMapping("/expiry-sweep")
+    public ResponseEntity<Map<String, Object>> getExpirySweepStats() {
+        return ResponseEntity.ok(permitExpirySweeper.getStats());
+    }
+
     /**
      * Get all permits
      * GET /api/permits
@@ -0,0 +1,18 @@
+package com.datacenter.workingpermit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of access logs, newest first
+ */
+@Data
+@AllArgsConstructor
+public class AccessLogPage {
+
+    private List<AccessLogResponse> items;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+}
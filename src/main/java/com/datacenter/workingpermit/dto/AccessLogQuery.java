@@ -0,0 +1,29 @@
+package com.datacenter.workingpermit.dto;
+
+import com.datacenter.workingpermit.model.AccessLog;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters and cursor for paged access log queries
+ */
+@Data
+public class AccessLogQuery {
+
+    private Long permitId;
+    private Long userId;
+    private String location;
+    private AccessLog.AccessType accessType;
+    private AccessLog.AccessStatus status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+}
@@ -1,6 +1,7 @@
 package com.datacenter.workingpermit.dto;
 
 import com.datacenter.workingpermit.model.AccessLog;
+import com.datacenter.workingpermit.model.WorkingPermit;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,6 +33,32 @@ public class AccessLogResponse {
     private String deviceId;
     private String dataCenter;
 
+    /**
+     * Constructor used by JPQL/criteria constructor-expression projections
+     */
+    public AccessLogResponse(
+            Long id,
+            Long permitId,
+            String permitNumber,
+            Long userId,
+            String visitorName,
+            String visitorEmail,
+            String company,
+            AccessLog.AccessType accessType,
+            String location,
+            LocalDateTime timestamp,
+            AccessLog.AccessStatus status,
+            String remarks,
+            String deviceId,
+            WorkingPermit.DataCenter dataCenter) {
+        this(id, permitId, permitNumber, userId, visitorName, visitorEmail, company,
+                accessType != null ? accessType.name() : null,
+                location, timestamp,
+                status != null ? status.name() : null,
+                remarks, deviceId,
+                dataCenter != null ? dataCenter.name() : null);
+    }
+
     /**
      * Create AccessLogResponse from AccessLog entity
      */
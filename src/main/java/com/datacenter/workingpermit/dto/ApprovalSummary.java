@@ -0,0 +1,28 @@
+package com.datacenter.workingpermit.dto;
+
+import com.datacenter.workingpermit.model.Approval;
+import com.datacenter.workingpermit.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Approval step of a permit with the approver's name, for the permit detail view
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalSummary {
+
+    private Long id;
+    private Approval.ApprovalLevel level;
+    private Approval.ApprovalStatus status;
+    private String comments;
+    private LocalDateTime reviewedAt;
+    private LocalDateTime createdAt;
+    private Long approverId;
+    private String approverName;
+    private User.UserRole approverRole;
+}
@@ -0,0 +1,15 @@
+package com.datacenter.workingpermit.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchApprovalRequest {
+
+    @NotEmpty(message = "At least one permit ID is required")
+    private List<Long> permitIds;
+
+    private String comments;
+}
@@ -0,0 +1,24 @@
+package com.datacenter.workingpermit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Temporary ID card state of a permit, for the permit detail view
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdCardStatus {
+
+    private Long id;
+    private String cardNumber;
+    private LocalDateTime issuedAt;
+    private LocalDateTime expiresAt;
+    private Boolean active;
+    private LocalDateTime deactivatedAt;
+    private String deactivationReason;
+}
@@ -0,0 +1,24 @@
+package com.datacenter.workingpermit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Visitor currently inside a location (more ENTRY than EXIT events on an active permit)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationOccupant {
+
+    private String location;
+    private Long userId;
+    private String visitorName;
+    private String company;
+    private Long permitId;
+    private String permitNumber;
+    private LocalDateTime lastSeen;
+}
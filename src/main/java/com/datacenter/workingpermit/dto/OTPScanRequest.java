@@ -0,0 +1,18 @@
+package com.datacenter.workingpermit.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single buffered scan replayed by a gate turnstile
+ */
+@Data
+public class OTPScanRequest {
+
+    private String scannedCode;
+
+    private String deviceId; // ID turnstile/scanner
+
+    private LocalDateTime scannedAt; // Waktu scan di perangkat
+}
@@ -0,0 +1,20 @@
+package com.datacenter.workingpermit.dto;
+
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Everything the permit detail view shows, read with a fixed number of queries
+ */
+@Data
+@AllArgsConstructor
+public class PermitDetail {
+
+    private WorkingPermit permit; // visitor, PIC and equipment list already loaded
+    private List<ApprovalSummary> approvals;
+    private List<AccessLogResponse> recentAccessLogs; // newest first
+    private IdCardStatus idCard; // null until a card is issued
+}
@@ -0,0 +1,19 @@
+package com.datacenter.workingpermit.dto;
+
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.Data;
+
+/**
+ * Filters and cursor for paged permit listings
+ */
+@Data
+public class PermitQuery {
+
+    private Long visitorId;
+    private Long picId;
+    private WorkingPermit.PermitStatus status;
+    private WorkingPermit.DataCenter dataCenter;
+
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+}
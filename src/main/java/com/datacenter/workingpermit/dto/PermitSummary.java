@@ -0,0 +1,34 @@
+package com.datacenter.workingpermit.dto;
+
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lean permit row for list views; the full entity is only served by the detail endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermitSummary {
+
+    private Long id;
+    private String permitNumber;
+    private WorkingPermit.PermitStatus status;
+    private WorkingPermit.DataCenter dataCenter;
+    private WorkingPermit.VisitType visitType;
+    private String visitPurpose;
+    private LocalDateTime scheduledStartTime;
+    private LocalDateTime scheduledEndTime;
+    private LocalDateTime actualCheckInTime;
+    private LocalDateTime actualCheckOutTime;
+    private LocalDateTime createdAt;
+    private Long visitorId;
+    private String visitorName;
+    private String visitorCompany;
+    private Long picId;
+    private String picName;
+}
@@ -0,0 +1,52 @@
+package com.datacenter.workingpermit.event;
+
+import com.datacenter.workingpermit.model.AccessLog;
+import com.datacenter.workingpermit.model.User;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.Builder;
+import lombok.Getter;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published for every access log entry as it is recorded.
+ * Names are only filled in when the permit/visitor were already loaded;
+ * entries logged by ID (e.g. RFID swipes) carry IDs only.
+ */
+@Getter
+@Builder
+public class AccessRecordedEvent {
+
+    private final Long permitId;
+    private final String permitNumber;
+    private final Long userId;
+    private final String visitorName;
+    private final AccessLog.AccessType accessType;
+    private final AccessLog.AccessStatus status;
+    private final String location;
+    private final LocalDateTime timestamp;
+    private final String remarks;
+
+    /**
+     * Snapshot the given (not yet persisted) access log
+     */
+    public static AccessRecordedEvent from(AccessLog accessLog) {
+        WorkingPermit permit = accessLog.getWorkingPermit();
+        User user = accessLog.getUser();
+        boolean permitLoaded = permit != null && Hibernate.isInitialized(permit);
+        boolean userLoaded = user != null && Hibernate.isInitialized(user);
+
+        return AccessRecordedEvent.builder()
+                .permitId(permit != null ? permit.getId() : null)
+                .permitNumber(permitLoaded ? permit.getPermitNumber() : null)
+                .userId(user != null ? user.getId() : null)
+                .visitorName(userLoaded ? user.getFullName() : null)
+                .accessType(accessLog.getAccessType())
+                .status(accessLog.getStatus())
+                .location(accessLog.getLocation())
+                .timestamp(accessLog.getTimestamp() != null ? accessLog.getTimestamp() : LocalDateTime.now())
+                .remarks(accessLog.getRemarks())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.datacenter.workingpermit.event;
+
+import com.datacenter.workingpermit.model.TempIdCard;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a temporary ID card is issued or deactivated.
+ * Carries a snapshot of the card and its permit for the RFID credential cache.
+ */
+@Getter
+@Builder
+public class IdCardChangedEvent {
+
+    private final Long cardId;
+    private final String cardNumber;
+    private final String rfidTag;
+    private final LocalDateTime expiresAt;
+    private final boolean active;
+    private final Long permitId;
+    private final String permitNumber;
+    private final WorkingPermit.PermitStatus permitStatus;
+    private final WorkingPermit.DataCenter dataCenter;
+    private final Long visitorId;
+
+    /**
+     * Snapshot the given card together with its permit
+     */
+    public static IdCardChangedEvent from(TempIdCard card, WorkingPermit permit) {
+        return IdCardChangedEvent.builder()
+                .cardId(card.getId())
+                .cardNumber(card.getCardNumber())
+                .rfidTag(card.getRfidTag())
+                .expiresAt(card.getExpiresAt())
+                .active(Boolean.TRUE.equals(card.getIsActive()))
+                .permitId(permit.getId())
+                .permitNumber(permit.getPermitNumber())
+                .permitStatus(permit.getStatus())
+                .dataCenter(permit.getDataCenter())
+                .visitorId(permit.getVisitor() != null ? permit.getVisitor().getId() : null)
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.datacenter.workingpermit.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a notification is written to the outbox, so the dispatcher
+ * can pick it up right after commit instead of waiting for the next poll.
+ */
+@Getter
+@RequiredArgsConstructor
+public class NotificationQueuedEvent {
+
+    private final Long notificationId;
+}
@@ -0,0 +1,52 @@
+package com.datacenter.workingpermit.event;
+
+import com.datacenter.workingpermit.model.WorkingPermit;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a permit's status or OTP changes.
+ * Carries a snapshot of the fields in-memory read models need, so listeners
+ * never have to touch the (possibly detached) entity.
+ */
+@Getter
+@Builder
+public class PermitChangedEvent {
+
+    private final Long permitId;
+    private final String permitNumber;
+    private final WorkingPermit.PermitStatus status;
+    private final String otpCode;
+    private final LocalDateTime otpExpiryTime;
+    private final Long visitorId;
+    private final String visitorName;
+    private final String visitorEmail;
+    private final String company;
+    private final WorkingPermit.DataCenter dataCenter;
+    private final String visitPurpose;
+    private final LocalDateTime actualCheckInTime;
+    private final LocalDateTime scheduledEndTime;
+
+    /**
+     * Snapshot the given permit (visitor must be loadable)
+     */
+    public static PermitChangedEvent from(WorkingPermit permit) {
+        return PermitChangedEvent.builder()
+                .permitId(permit.getId())
+                .permitNumber(permit.getPermitNumber())
+                .status(permit.getStatus())
+                .otpCode(permit.getOtpCode())
+                .otpExpiryTime(permit.getOtpExpiryTime())
+                .visitorId(permit.getVisitor() != null ? permit.getVisitor().getId() : null)
+                .visitorName(permit.getVisitor() != null ? permit.getVisitor().getFullName() : null)
+                .visitorEmail(permit.getVisitor() != null ? permit.getVisitor().getEmail() : null)
+                .company(permit.getVisitor() != null ? permit.getVisitor().getCompany() : null)
+                .dataCenter(permit.getDataCenter())
+                .visitPurpose(permit.getVisitPurpose())
+                .actualCheckInTime(permit.getActualCheckInTime())
+                .scheduledEndTime(permit.getScheduledEndTime())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.datacenter.workingpermit.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published once per bulk manager approval with the IDs of every permit that
+ * was approved, so QR rendering, notifications and scanner sync can run after
+ * commit instead of inside the approval transaction.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PermitsApprovedEvent {
+
+    private final List<Long> permitIds;
+}
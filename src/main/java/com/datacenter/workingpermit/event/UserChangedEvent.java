@@ -0,0 +1,28 @@
+package com.datacenter.workingpermit.event;
+
+import com.datacenter.workingpermit.model.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a user is created, changed or deleted, so anything holding
+ * a copy of the user (cached principals, the token version table) can
+ * update or drop it.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final String username;
+    private final int tokenVersion;
+    private final boolean deleted;
+
+    public static UserChangedEvent from(User user) {
+        return new UserChangedEvent(user.getId(), user.getUsername(), user.getTokenVersion(), false);
+    }
+
+    public static UserChangedEvent deleted(User user) {
+        return new UserChangedEvent(user.getId(), user.getUsername(), user.getTokenVersion(), true);
+    }
+}
@@ -0,0 +1,18 @@
+package com.datacenter.workingpermit.exception;
+
+/**
+ * Exception thrown when a capacity limit is reached and the client should retry later
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -6,15 +6,26 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "access_logs")
+@Table(name = "access_logs", indexes = {
+        @Index(name = "idx_access_logs_ts_id", columnList = "timestamp, id"),
+        @Index(name = "idx_access_logs_permit_ts", columnList = "permit_id, timestamp, id"),
+        @Index(name = "idx_access_logs_user_ts", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_access_logs_type_status_ts", columnList = "accessType, status, timestamp"),
+        @Index(name = "idx_access_logs_location_ts", columnList = "location, timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class AccessLog {
 
+    public static final String ID_SEQUENCE = "access_logs_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence ids let Hibernate batch inserts (IDENTITY cannot)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "access_log_seq")
+    @SequenceGenerator(name = "access_log_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,7 +58,9 @@ public class AccessLog {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 
     public enum AccessType {
@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_status_next", columnList = "status, nextAttemptAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +50,19 @@ public class Notification {
 
     private LocalDateTime sentAt;
 
+    // Outbox delivery state, maintained by NotificationDispatcher
+    @Builder.Default
+    private Integer attempts = 0;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime lastAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private String attachmentPath;
+
     private LocalDateTime readAt;
 
     private LocalDateTime createdAt;
@@ -0,0 +1,29 @@
+package com.datacenter.workingpermit.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Outstanding OTP of a permit, shared by all nodes when app.otp.store is "database".
+ * Kept narrow on purpose: verification is a single indexed statement on this table.
+ */
+@Entity
+@Table(name = "otp_codes", indexes = {
+        @Index(name = "idx_otp_codes_code", columnList = "code", unique = true),
+        @Index(name = "idx_otp_codes_expires", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OtpCode {
+
+    @Id
+    private Long permitId;
+
+    @Column(nullable = false, length = 16)
+    private String code;
+
+    @Column(nullable = false)
+    private Long expiresAt; // epoch millis
+}
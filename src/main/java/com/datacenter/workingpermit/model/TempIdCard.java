@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "temp_id_cards")
+@Table(name = "temp_id_cards", indexes = {
+        @Index(name = "idx_id_cards_active_expires", columnList = "isActive, expiresAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
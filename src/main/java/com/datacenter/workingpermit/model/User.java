@@ -68,6 +68,10 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean credentialsNonExpired = true;
 
+    // Bumped to revoke every token issued so far (password change, disable)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -83,6 +87,10 @@ public class User implements UserDetails {
         updatedAt = LocalDateTime.now();
     }
 
+    public Integer getTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+
     // UserDetails implementation
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -8,7 +8,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "working_permits")
+@Table(name = "working_permits", indexes = {
+        @Index(name = "idx_permits_created_id", columnList = "createdAt, id"),
+        @Index(name = "idx_permits_visitor_created", columnList = "visitor_id, createdAt, id"),
+        @Index(name = "idx_permits_pic_created", columnList = "pic_id, createdAt, id"),
+        @Index(name = "idx_permits_status_created", columnList = "status, createdAt, id"),
+        @Index(name = "idx_permits_status_end", columnList = "status, scheduledEndTime")
+})
+@NamedEntityGraph(name = "WorkingPermit.detail", attributeNodes = {
+        @NamedAttributeNode("visitor"),
+        @NamedAttributeNode("pic"),
+        @NamedAttributeNode("equipmentList")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,7 +75,7 @@ public class WorkingPermit {
     private String qrCodeData; // Data unik untuk QR code
 
     @Transient
-    private String qrCodeBase64; // Base64 image data for frontend display
+    private String qrCodeVersion; // Content hash of the QR image, see GET /api/permits/{id}/qrcode
 
     private String qrCodeImagePath; // Path ke file QR code image
 
@@ -0,0 +1,23 @@
+package com.datacenter.workingpermit.repository;
+
+import com.datacenter.workingpermit.dto.AccessLogQuery;
+import com.datacenter.workingpermit.dto.AccessLogResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dynamic access log queries that project straight into DTOs
+ */
+public interface AccessLogQueryRepository {
+
+        /**
+         * Logs matching the filters, ordered by (timestamp, id) descending and
+         * strictly after the given keyset position when one is supplied
+         */
+        List<AccessLogResponse> findPage(
+                        AccessLogQuery query,
+                        LocalDateTime afterTimestamp,
+                        Long afterId,
+                        int limit);
+}
@@ -0,0 +1,96 @@
+package com.datacenter.workingpermit.repository;
+
+import com.datacenter.workingpermit.dto.AccessLogQuery;
+import com.datacenter.workingpermit.dto.AccessLogResponse;
+import com.datacenter.workingpermit.model.AccessLog;
+import com.datacenter.workingpermit.model.User;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only the filters that are actually set end up in the WHERE clause, so each
+ * query can use the matching composite index on access_logs.
+ */
+public class AccessLogQueryRepositoryImpl implements AccessLogQueryRepository {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Override
+        public List<AccessLogResponse> findPage(
+                        AccessLogQuery query,
+                        LocalDateTime afterTimestamp,
+                        Long afterId,
+                        int limit) {
+
+                CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                CriteriaQuery<AccessLogResponse> cq = cb.createQuery(AccessLogResponse.class);
+                Root<AccessLog> log = cq.from(AccessLog.class);
+                Join<AccessLog, WorkingPermit> permit = log.join("workingPermit");
+                Join<AccessLog, User> user = log.join("user");
+
+                cq.select(cb.construct(AccessLogResponse.class,
+                                log.get("id"),
+                                permit.get("id"),
+                                permit.get("permitNumber"),
+                                user.get("id"),
+                                user.get("fullName"),
+                                user.get("email"),
+                                user.get("company"),
+                                log.get("accessType"),
+                                log.get("location"),
+                                log.get("timestamp"),
+                                log.get("status"),
+                                log.get("remarks"),
+                                log.get("deviceId"),
+                                permit.get("dataCenter")));
+
+                List<Predicate> predicates = new ArrayList<>();
+                if (query.getPermitId() != null) {
+                        predicates.add(cb.equal(log.get("workingPermit").get("id"), query.getPermitId()));
+                }
+                if (query.getUserId() != null) {
+                        predicates.add(cb.equal(log.get("user").get("id"), query.getUserId()));
+                }
+                if (query.getLocation() != null && !query.getLocation().isBlank()) {
+                        predicates.add(cb.equal(log.get("location"), query.getLocation()));
+                }
+                if (query.getAccessType() != null) {
+                        predicates.add(cb.equal(log.get("accessType"), query.getAccessType()));
+                }
+                if (query.getStatus() != null) {
+                        predicates.add(cb.equal(log.get("status"), query.getStatus()));
+                }
+                if (query.getFrom() != null) {
+                        predicates.add(cb.greaterThanOrEqualTo(log.<LocalDateTime>get("timestamp"), query.getFrom()));
+                }
+                if (query.getTo() != null) {
+                        predicates.add(cb.lessThan(log.<LocalDateTime>get("timestamp"), query.getTo()));
+                }
+                if (afterTimestamp != null && afterId != null) {
+                        // (timestamp, id) < (afterTimestamp, afterId)
+                        predicates.add(cb.or(
+                                        cb.lessThan(log.<LocalDateTime>get("timestamp"), afterTimestamp),
+                                        cb.and(
+                                                        cb.equal(log.get("timestamp"), afterTimestamp),
+                                                        cb.lessThan(log.<Long>get("id"), afterId))));
+                }
+
+                cq.where(predicates.toArray(new Predicate[0]));
+                cq.orderBy(cb.desc(log.get("timestamp")), cb.desc(log.get("id")));
+
+                return entityManager.createQuery(cq)
+                                .setMaxResults(limit)
+                                .getResultList();
+        }
+}
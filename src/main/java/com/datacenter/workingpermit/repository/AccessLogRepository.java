@@ -1,7 +1,11 @@
 package com.datacenter.workingpermit.repository;
 
+import com.datacenter.workingpermit.dto.AccessLogResponse;
+import com.datacenter.workingpermit.dto.LocationOccupant;
 import com.datacenter.workingpermit.model.AccessLog;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,7 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AccessLogRepository extends JpaRepository<AccessLog, Long> {
+public interface AccessLogRepository extends JpaRepository<AccessLog, Long>, AccessLogQueryRepository {
 
         List<AccessLog> findByWorkingPermit(WorkingPermit workingPermit);
 
@@ -58,4 +62,40 @@ public interface AccessLogRepository extends JpaRepository<AccessLog, Long> {
 
         // Find logs ordered by timestamp (most recent first)
         List<AccessLog> findAllByOrderByTimestampDesc();
+
+        // Logs for a location, projected to DTOs (uses idx_access_logs_location_ts)
+        @Query(value = "SELECT new com.datacenter.workingpermit.dto.AccessLogResponse(" +
+                        "a.id, wp.id, wp.permitNumber, u.id, u.fullName, u.email, u.company, " +
+                        "a.accessType, a.location, a.timestamp, a.status, a.remarks, a.deviceId, wp.dataCenter) " +
+                        "FROM AccessLog a JOIN a.workingPermit wp JOIN a.user u " +
+                        "WHERE a.location = :location " +
+                        "AND a.timestamp >= :from AND a.timestamp < :to " +
+                        "ORDER BY a.timestamp DESC, a.id DESC",
+                        countQuery = "SELECT COUNT(a) FROM AccessLog a WHERE a.location = :location " +
+                                        "AND a.timestamp >= :from AND a.timestamp < :to")
+        Page<AccessLogResponse> findByLocationInWindow(
+                        @Param("location") String location,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to,
+                        Pageable pageable);
+
+        // Visitors with more successful ENTRY than EXIT events at a location, on active permits
+        @Query("SELECT new com.datacenter.workingpermit.dto.LocationOccupant(" +
+                        "a.location, u.id, u.fullName, u.company, wp.id, wp.permitNumber, MAX(a.timestamp)) " +
+                        "FROM AccessLog a JOIN a.workingPermit wp JOIN a.user u " +
+                        "WHERE a.location = :location AND a.status = 'SUCCESS' " +
+                        "AND a.accessType IN ('ENTRY', 'EXIT') AND wp.status = 'ACTIVE' " +
+                        "GROUP BY a.location, u.id, u.fullName, u.company, wp.id, wp.permitNumber " +
+                        "HAVING SUM(CASE WHEN a.accessType = 'ENTRY' THEN 1 ELSE -1 END) > 0")
+        List<LocationOccupant> findOccupantsByLocation(@Param("location") String location);
+
+        // Same aggregate across all locations
+        @Query("SELECT new com.datacenter.workingpermit.dto.LocationOccupant(" +
+                        "a.location, u.id, u.fullName, u.company, wp.id, wp.permitNumber, MAX(a.timestamp)) " +
+                        "FROM AccessLog a JOIN a.workingPermit wp JOIN a.user u " +
+                        "WHERE a.status = 'SUCCESS' " +
+                        "AND a.accessType IN ('ENTRY', 'EXIT') AND wp.status = 'ACTIVE' " +
+                        "GROUP BY a.location, u.id, u.fullName, u.company, wp.id, wp.permitNumber " +
+                        "HAVING SUM(CASE WHEN a.accessType = 'ENTRY' THEN 1 ELSE -1 END) > 0")
+        List<LocationOccupant> findAllOccupants();
 }
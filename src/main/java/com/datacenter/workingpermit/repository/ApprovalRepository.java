@@ -1,10 +1,14 @@
 package com.datacenter.workingpermit.repository;
 
+import com.datacenter.workingpermit.dto.ApprovalSummary;
 import com.datacenter.workingpermit.model.Approval;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +41,18 @@ public interface ApprovalRepository extends JpaRepository<Approval, Long> {
         List<Approval> findByApproverIdAndStatusInOrderByReviewedAtDesc(
                         Long approverId,
                         List<Approval.ApprovalStatus> statuses);
+
+        // Approval steps of a permit with approver names, in the order they were created
+        @Query("SELECT new com.datacenter.workingpermit.dto.ApprovalSummary(" +
+                        "a.id, a.level, a.status, a.comments, a.reviewedAt, a.createdAt, u.id, u.fullName, u.role) " +
+                        "FROM Approval a LEFT JOIN a.approver u " +
+                        "WHERE a.workingPermit.id = :permitId ORDER BY a.createdAt, a.id")
+        List<ApprovalSummary> findSummariesByPermitId(@Param("permitId") Long permitId);
+
+        // Approvals of one level for many permits, with permit and visitor loaded
+        @Query("SELECT a FROM Approval a JOIN FETCH a.workingPermit wp JOIN FETCH wp.visitor " +
+                        "WHERE wp.id IN :permitIds AND a.level = :level")
+        List<Approval> findByPermitIdsAndLevelWithPermit(
+                        @Param("permitIds") Collection<Long> permitIds,
+                        @Param("level") Approval.ApprovalLevel level);
 }
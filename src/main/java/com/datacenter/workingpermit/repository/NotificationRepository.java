@@ -1,9 +1,18 @@
 package com.datacenter.workingpermit.repository;
 
 import com.datacenter.workingpermit.model.Notification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -22,4 +31,25 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             Notification.DeliveryStatus status);
 
     long countByRecipientIdAndIsRead(Long recipientId, Boolean isRead);
+
+    /**
+     * Claim due outbox rows. Lock timeout -2 renders FOR UPDATE SKIP LOCKED,
+     * so concurrent dispatchers never pick the same row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM Notification n WHERE n.status = 'PENDING' " +
+            "AND (n.nextAttemptAt IS NULL OR n.nextAttemptAt <= :now) ORDER BY n.id")
+    List<Notification> findDueForDispatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :sentAt, " +
+            "n.nextAttemptAt = :nextAttemptAt, n.lastError = :error WHERE n.id = :id")
+    int updateDeliveryState(@Param("id") Long id,
+            @Param("status") Notification.DeliveryStatus status,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    long countByStatus(Notification.DeliveryStatus status);
 }
@@ -0,0 +1,46 @@
+package com.datacenter.workingpermit.repository;
+
+import com.datacenter.workingpermit.model.OtpCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OtpCodeRepository extends JpaRepository<OtpCode, Long> {
+
+        @Query("SELECT o FROM OtpCode o WHERE o.permitId = :permitId AND o.expiresAt > :now")
+        Optional<OtpCode> findUnexpired(@Param("permitId") Long permitId, @Param("now") long now);
+
+        @Query("SELECT o FROM OtpCode o WHERE o.code = :code AND o.expiresAt > :now")
+        Optional<OtpCode> findUnexpiredByCode(@Param("code") String code, @Param("now") long now);
+
+        // Fails with a constraint violation if the permit or the code already has a row
+        @Modifying
+        @Query("INSERT INTO OtpCode (permitId, code, expiresAt) VALUES (:permitId, :code, :expiresAt)")
+        int create(
+                        @Param("permitId") Long permitId,
+                        @Param("code") String code,
+                        @Param("expiresAt") long expiresAt);
+
+        // Consume a matching unexpired code; only one caller across all nodes gets 1
+        @Modifying
+        @Query("DELETE FROM OtpCode o WHERE o.permitId = :permitId AND o.code = :code AND o.expiresAt > :now")
+        int consume(@Param("permitId") Long permitId, @Param("code") String code, @Param("now") long now);
+
+        @Modifying
+        @Query("DELETE FROM OtpCode o WHERE o.permitId = :permitId")
+        int deleteByPermit(@Param("permitId") Long permitId);
+
+        // Frees a code whose holder has expired, so it can be issued again
+        @Modifying
+        @Query("DELETE FROM OtpCode o WHERE o.code = :code AND o.expiresAt <= :now")
+        int deleteExpiredByCode(@Param("code") String code, @Param("now") long now);
+
+        @Modifying
+        @Query("DELETE FROM OtpCode o WHERE o.expiresAt <= :now")
+        int deleteExpired(@Param("now") long now);
+}
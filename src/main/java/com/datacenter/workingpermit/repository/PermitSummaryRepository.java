@@ -0,0 +1,23 @@
+package com.datacenter.workingpermit.repository;
+
+import com.datacenter.workingpermit.dto.PermitQuery;
+import com.datacenter.workingpermit.dto.PermitSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dynamic permit listings that project straight into summaries
+ */
+public interface PermitSummaryRepository {
+
+        /**
+         * Permits matching the filters, ordered by (createdAt, id) descending and
+         * strictly after the given keyset position when one is supplied
+         */
+        List<PermitSummary> findSummaryPage(
+                        PermitQuery query,
+                        LocalDateTime afterCreatedAt,
+                        Long afterId,
+                        int limit);
+}
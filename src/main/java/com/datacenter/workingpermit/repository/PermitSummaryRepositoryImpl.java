@@ -0,0 +1,89 @@
+package com.datacenter.workingpermit.repository;
+
+import com.datacenter.workingpermit.dto.PermitQuery;
+import com.datacenter.workingpermit.dto.PermitSummary;
+import com.datacenter.workingpermit.model.User;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One select joining visitor and PIC, with only the filters that are set in
+ * the WHERE clause so each listing can use its composite index on working_permits.
+ */
+public class PermitSummaryRepositoryImpl implements PermitSummaryRepository {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Override
+        public List<PermitSummary> findSummaryPage(
+                        PermitQuery query,
+                        LocalDateTime afterCreatedAt,
+                        Long afterId,
+                        int limit) {
+
+                CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                CriteriaQuery<PermitSummary> cq = cb.createQuery(PermitSummary.class);
+                Root<WorkingPermit> permit = cq.from(WorkingPermit.class);
+                Join<WorkingPermit, User> visitor = permit.join("visitor", JoinType.LEFT);
+                Join<WorkingPermit, User> pic = permit.join("pic", JoinType.LEFT);
+
+                cq.select(cb.construct(PermitSummary.class,
+                                permit.get("id"),
+                                permit.get("permitNumber"),
+                                permit.get("status"),
+                                permit.get("dataCenter"),
+                                permit.get("visitType"),
+                                permit.get("visitPurpose"),
+                                permit.get("scheduledStartTime"),
+                                permit.get("scheduledEndTime"),
+                                permit.get("actualCheckInTime"),
+                                permit.get("actualCheckOutTime"),
+                                permit.get("createdAt"),
+                                visitor.get("id"),
+                                visitor.get("fullName"),
+                                visitor.get("company"),
+                                pic.get("id"),
+                                pic.get("fullName")));
+
+                List<Predicate> predicates = new ArrayList<>();
+                if (query.getVisitorId() != null) {
+                        predicates.add(cb.equal(permit.get("visitor").get("id"), query.getVisitorId()));
+                }
+                if (query.getPicId() != null) {
+                        predicates.add(cb.equal(permit.get("pic").get("id"), query.getPicId()));
+                }
+                if (query.getStatus() != null) {
+                        predicates.add(cb.equal(permit.get("status"), query.getStatus()));
+                }
+                if (query.getDataCenter() != null) {
+                        predicates.add(cb.equal(permit.get("dataCenter"), query.getDataCenter()));
+                }
+                if (afterCreatedAt != null && afterId != null) {
+                        // (createdAt, id) < (afterCreatedAt, afterId)
+                        predicates.add(cb.or(
+                                        cb.lessThan(permit.<LocalDateTime>get("createdAt"), afterCreatedAt),
+                                        cb.and(
+                                                        cb.equal(permit.get("createdAt"), afterCreatedAt),
+                                                        cb.lessThan(permit.<Long>get("id"), afterId))));
+                }
+
+                cq.where(predicates.toArray(new Predicate[0]));
+                cq.orderBy(cb.desc(permit.get("createdAt")), cb.desc(permit.get("id")));
+
+                return entityManager.createQuery(cq)
+                                .setMaxResults(limit)
+                                .getResultList();
+        }
+}
@@ -1,10 +1,18 @@
 package com.datacenter.workingpermit.repository;
 
+import com.datacenter.workingpermit.dto.IdCardStatus;
 import com.datacenter.workingpermit.model.TempIdCard;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +27,34 @@ public interface TempIdCardRepository extends JpaRepository<TempIdCard, Long> {
     Optional<TempIdCard> findByCardNumberAndIsActive(String cardNumber, Boolean isActive);
 
     Optional<TempIdCard> findByRfidTagAndIsActive(String rfidTag, Boolean isActive);
+
+    @Query("SELECT c FROM TempIdCard c JOIN FETCH c.workingPermit wp JOIN FETCH wp.visitor WHERE c.rfidTag = :rfidTag")
+    Optional<TempIdCard> findByRfidTagWithPermit(@Param("rfidTag") String rfidTag);
+
+    @Query("SELECT new com.datacenter.workingpermit.dto.IdCardStatus(" +
+            "c.id, c.cardNumber, c.issuedAt, c.expiresAt, c.isActive, c.deactivatedAt, c.deactivationReason) " +
+            "FROM TempIdCard c WHERE c.workingPermit.id = :permitId")
+    Optional<IdCardStatus> findStatusByPermitId(@Param("permitId") Long permitId);
+
+    @Query("SELECT c FROM TempIdCard c JOIN FETCH c.workingPermit wp JOIN FETCH wp.visitor WHERE c.isActive = true")
+    List<TempIdCard> findActiveWithPermit();
+
+    @Query("SELECT c FROM TempIdCard c JOIN FETCH c.workingPermit wp JOIN FETCH wp.visitor WHERE c.id IN :ids")
+    List<TempIdCard> findAllWithPermitByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Active cards past expiry, limited to cards that expired or were issued since the last sweep
+    @Query("SELECT c.id FROM TempIdCard c WHERE c.isActive = true AND c.expiresAt < :now " +
+            "AND (c.expiresAt >= :since OR c.issuedAt >= :since) ORDER BY c.id")
+    List<Long> findExpiredActiveIdsSince(
+            @Param("now") LocalDateTime now,
+            @Param("since") LocalDateTime since,
+            Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE TempIdCard c SET c.isActive = false, c.deactivatedAt = :now, c.deactivationReason = :reason " +
+            "WHERE c.id IN :ids AND c.isActive = true")
+    int deactivateAll(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now,
+            @Param("reason") String reason);
 }
@@ -2,34 +2,83 @@ package com.datacenter.workingpermit.repository;
 
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WorkingPermitRepository extends JpaRepository<WorkingPermit, Long> {
+public interface WorkingPermitRepository extends JpaRepository<WorkingPermit, Long>, PermitSummaryRepository {
 
         Optional<WorkingPermit> findByPermitNumber(String permitNumber);
 
+        // Visitor, PIC and equipment list in the same select as the permit
+        @EntityGraph("WorkingPermit.detail")
+        @Query("SELECT wp FROM WorkingPermit wp WHERE wp.id = :id")
+        Optional<WorkingPermit> findDetailById(@Param("id") Long id);
+
         Optional<WorkingPermit> findByQrCodeData(String qrCodeData);
 
         Optional<WorkingPermit> findByOtpCode(String otpCode);
 
+        // Old permits keep their OTP, so a code can match several rows; newest first
+        @Query("SELECT wp FROM WorkingPermit wp JOIN FETCH wp.visitor WHERE wp.otpCode = :otpCode " +
+                        "ORDER BY wp.createdAt DESC")
+        List<WorkingPermit> findByOtpCodeWithVisitor(@Param("otpCode") String otpCode);
+
         @Query("SELECT wp FROM WorkingPermit wp WHERE UPPER(wp.otpCode) = UPPER(:otpCode)")
         Optional<WorkingPermit> findByOtpCodeIgnoreCase(@Param("otpCode") String otpCode);
 
         @Query("SELECT wp FROM WorkingPermit wp WHERE wp.otpCode IS NOT NULL AND wp.status = 'APPROVED' ORDER BY wp.createdAt DESC")
         List<WorkingPermit> findAllWithOtpCode();
 
+        @Query("SELECT wp FROM WorkingPermit wp JOIN FETCH wp.visitor " +
+                        "WHERE wp.otpCode IS NOT NULL AND wp.status IN :statuses")
+        List<WorkingPermit> findWithOtpCodeByStatusIn(
+                        @Param("statuses") Collection<WorkingPermit.PermitStatus> statuses);
+
+        @Query("SELECT wp FROM WorkingPermit wp JOIN FETCH wp.visitor WHERE wp.otpCode IN :otpCodes " +
+                        "ORDER BY wp.createdAt DESC")
+        List<WorkingPermit> findByOtpCodeInWithVisitor(@Param("otpCodes") Collection<String> otpCodes);
+
+        @Query("SELECT wp FROM WorkingPermit wp JOIN FETCH wp.visitor WHERE wp.id IN :ids ORDER BY wp.id")
+        List<WorkingPermit> findAllWithVisitorByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT wp.qrCodeData FROM WorkingPermit wp WHERE wp.id = :id AND wp.qrCodeData IS NOT NULL")
+        Optional<String> findQrCodeDataById(@Param("id") Long id);
+
         List<WorkingPermit> findByVisitorOrderByCreatedAtDesc(User visitor);
 
         List<WorkingPermit> findByPicOrderByCreatedAtDesc(User pic);
 
+        @Query("SELECT wp FROM WorkingPermit wp " +
+                        "LEFT JOIN FETCH wp.visitor " +
+                        "LEFT JOIN FETCH wp.pic " +
+                        "WHERE wp.visitor.id = :visitorId " +
+                        "ORDER BY wp.createdAt DESC")
+        List<WorkingPermit> findByVisitorIdWithDetails(@Param("visitorId") Long visitorId);
+
+        @Query("SELECT wp FROM WorkingPermit wp " +
+                        "LEFT JOIN FETCH wp.visitor " +
+                        "LEFT JOIN FETCH wp.pic " +
+                        "WHERE wp.pic.id = :picId " +
+                        "ORDER BY wp.createdAt DESC")
+        List<WorkingPermit> findByPicIdWithDetails(@Param("picId") Long picId);
+
+        @Query("SELECT wp FROM WorkingPermit wp " +
+                        "LEFT JOIN FETCH wp.visitor " +
+                        "LEFT JOIN FETCH wp.pic " +
+                        "ORDER BY wp.createdAt DESC")
+        List<WorkingPermit> findAllWithDetails();
+
         List<WorkingPermit> findByStatusOrderByCreatedAtDesc(WorkingPermit.PermitStatus status);
 
         @Query("SELECT wp FROM WorkingPermit wp " +
@@ -58,4 +107,26 @@ public interface WorkingPermitRepository extends JpaRepository<WorkingPermit, Lo
         @Query("SELECT wp FROM WorkingPermit wp WHERE wp.status = 'ACTIVE' " +
                         "AND wp.scheduledEndTime < :now")
         List<WorkingPermit> findOverdueActivePermits(@Param("now") LocalDateTime now);
+
+        @Query("SELECT COUNT(wp) FROM WorkingPermit wp WHERE wp.status = 'ACTIVE' " +
+                        "AND wp.scheduledEndTime < :now")
+        long countOverdueActivePermits(@Param("now") LocalDateTime now);
+
+        // Approved permits whose visit window ended without a check-in, limited to
+        // windows that ended or permits that changed since the last sweep
+        @Query("SELECT wp.id FROM WorkingPermit wp WHERE wp.status = 'APPROVED' " +
+                        "AND wp.actualCheckInTime IS NULL AND wp.scheduledEndTime < :now " +
+                        "AND (wp.scheduledEndTime >= :since OR wp.updatedAt >= :since) ORDER BY wp.id")
+        List<Long> findNoShowIdsSince(
+                        @Param("now") LocalDateTime now,
+                        @Param("since") LocalDateTime since,
+                        Pageable pageable);
+
+        @Modifying(clearAutomatically = true)
+        @Query("UPDATE WorkingPermit wp SET wp.status = :status, wp.updatedAt = :now " +
+                        "WHERE wp.id IN :ids AND wp.status = 'APPROVED' AND wp.actualCheckInTime IS NULL")
+        int expireNoShows(
+                        @Param("ids") Collection<Long> ids,
+                        @Param("status") WorkingPermit.PermitStatus status,
+                        @Param("now") LocalDateTime now);
 }
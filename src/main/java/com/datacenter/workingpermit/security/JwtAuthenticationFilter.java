@@ -1,11 +1,13 @@
 package com.datacenter.workingpermit.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +26,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${app.jwt.stateless:false}")
+    private boolean statelessMode;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -32,16 +39,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (StringUtils.hasText(jwt)) {
+                UserDetails userDetails = resolvePrincipal(jwt);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Set authentication for user: {}", username);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("Set authentication for user: {}", userDetails.getUsername());
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -50,6 +57,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal for a token. Stateless mode trusts the signed claims and only
+     * checks the token version; otherwise the user is served from the cache
+     * when warm, or the token is parsed once and the user loaded.
+     */
+    private UserDetails resolvePrincipal(String jwt) {
+        if (statelessMode && tokenVersionRegistry.isLoaded()) {
+            Claims claims = tokenProvider.parse(jwt);
+            if (claims == null) {
+                return null;
+            }
+            JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+            if (principal != null) {
+                return tokenVersionRegistry.isCurrent(principal.getId(), principal.getTokenVersion())
+                        ? principal : null;
+            }
+            // Token issued before identity claims existed
+            return loadPrincipal(PrincipalCache.keyOf(jwt), claims);
+        }
+
+        String key = PrincipalCache.keyOf(jwt);
+        UserDetails cached = principalCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = tokenProvider.parse(jwt);
+        if (claims == null || !tokenVersionRegistry.accepts(claims)) {
+            return null;
+        }
+        return loadPrincipal(key, claims);
+    }
+
+    private UserDetails loadPrincipal(String key, Claims claims) {
+        String username = claims.getSubject();
+        long generation = principalCache.generationOf(username);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        principalCache.put(key, userDetails, claims.getExpiration().getTime(), generation);
+        return userDetails;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,80 @@
+package com.datacenter.workingpermit.security;
+
+import com.datacenter.workingpermit.model.User;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built purely from signed token claims (stateless mode).
+ * Carries only what authorization needs; no password, no database state.
+ */
+@Getter
+@RequiredArgsConstructor
+public class JwtPrincipal implements UserDetails {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final User.UserRole role;
+    private final User.Team team;
+    private final int tokenVersion;
+
+    /**
+     * Principal from claims, or null if the token predates the uid/role/ver claims
+     */
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+        Integer tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        if (userId == null || role == null || tokenVersion == null) {
+            return null;
+        }
+        String team = claims.get(JwtTokenProvider.CLAIM_TEAM, String.class);
+        return new JwtPrincipal(
+                userId,
+                claims.getSubject(),
+                User.UserRole.valueOf(role),
+                team != null ? User.Team.valueOf(team) : null,
+                tokenVersion);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.datacenter.workingpermit.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Password Hashing Policy
+ * Measures the configured BCrypt cost on this host at startup and reports the
+ * resulting per-core login throughput, warning when a hash falls outside the
+ * target latency window. Use it to pick app.security.bcrypt-strength: each
+ * step up doubles the cost, and existing hashes are upgraded on login.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingPolicy {
+
+    private static final int SAMPLES = 5;
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.security.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${app.security.bcrypt-target-min-ms:50}")
+    private long targetMinMs;
+
+    @Value("${app.security.bcrypt-target-max-ms:250}")
+    private long targetMaxMs;
+
+    /**
+     * Time a few hash verifications off the startup thread
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void measure() {
+        String hash = passwordEncoder.encode("benchmark-password");
+        passwordEncoder.matches("benchmark-password", hash); // warm-up
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SAMPLES; i++) {
+            passwordEncoder.matches("benchmark-password", hash);
+        }
+        double measuredMs = (System.nanoTime() - start) / 1_000_000.0 / SAMPLES;
+
+        double loginsPerCore = 1000.0 / measuredMs;
+        if (measuredMs > targetMaxMs) {
+            log.warn("BCrypt cost {} takes {} ms per login (~{} logins/s per core), above the {} ms target",
+                    strength, Math.round(measuredMs), Math.round(loginsPerCore), targetMaxMs);
+        } else if (measuredMs < targetMinMs) {
+            log.warn("BCrypt cost {} takes {} ms per login (~{} logins/s per core), below the {} ms target",
+                    strength, Math.round(measuredMs), Math.round(loginsPerCore), targetMinMs);
+        } else {
+            log.info("BCrypt cost {} takes {} ms per login (~{} logins/s per core)",
+                    strength, Math.round(measuredMs), Math.round(loginsPerCore));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.datacenter.workingpermit.security;
+
+import com.datacenter.workingpermit.event.UserChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Principal Cache
+ * Authenticated principals keyed by the SHA-256 of the bearer token, so a
+ * token that was already verified is not parsed again and its user is not
+ * reloaded on every request. Entries live no longer than the TTL or the
+ * token's own expiry, whichever is first, and are dropped for a user as soon
+ * as that user changes.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    @Value("${app.jwt.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.jwt.principal-cache.ttl:300000}")
+    private long ttlMs;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Bumped on every change to a user; a load that started before the bump is not cached
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Cache key for a raw token
+     */
+    public static String keyOf(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cached principal for the token key, or null if absent or expired
+     */
+    public UserDetails get(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    hits.incrementAndGet();
+                    return entry.principal;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Generation to capture before loading a user, passed back to put
+     */
+    public long generationOf(String username) {
+        return generations.getOrDefault(username, 0L);
+    }
+
+    /**
+     * Cache a principal until the earlier of the TTL and the token expiry
+     */
+    public void put(String key, UserDetails principal, long tokenExpiresAt, long generation) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMs, tokenExpiresAt);
+        synchronized (this) {
+            // The user changed while it was being loaded; the loaded copy may be stale
+            if (generationOf(principal.getUsername()) != generation) {
+                return;
+            }
+            entries.put(key, new Entry(principal, expiresAt));
+            var eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop every cached token of a user
+     */
+    public void evictUser(String username) {
+        if (username == null) {
+            return;
+        }
+        int removed;
+        synchronized (this) {
+            generations.merge(username, 1L, Long::sum);
+            int before = entries.size();
+            entries.values().removeIf(entry -> username.equals(entry.principal.getUsername()));
+            removed = before - entries.size();
+        }
+        evictions.addAndGet(removed);
+        log.debug("Evicted {} cached principals for user {}", removed, username);
+    }
+
+    /**
+     * Drop principals once a user change commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictUser(event.getUsername());
+    }
+
+    /**
+     * Cache counters and size
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private static final class Entry {
+        private final UserDetails principal;
+        private final long expiresAt;
+
+        Entry(UserDetails principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.datacenter.workingpermit.security;
+
+import com.datacenter.workingpermit.event.UserChangedEvent;
+import com.datacenter.workingpermit.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token Version Registry
+ * In-memory table of the current token version of every user. A token is
+ * accepted only if its "ver" claim matches; bumping a user's version (password
+ * change, disable) revokes all their earlier tokens, and deleted users have
+ * no entry at all. Loaded once at startup and kept current by user events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+
+    // Replaced as a whole by load; guarded by this for writers, read lock-free
+    private volatile Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Changes seen while the table is loading, replayed over the rows read; guarded by this
+    private List<UserChangedEvent> pendingChanges;
+
+    /**
+     * Build the table aside and swap it in, replaying user changes committed
+     * during the load so a stale row cannot undo a version bump
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            Map<Long, Integer> loadedVersions = new ConcurrentHashMap<>();
+            userRepository.findAllTokenVersions()
+                    .forEach(row -> loadedVersions.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0));
+
+            synchronized (this) {
+                pendingChanges.forEach(event -> apply(loadedVersions, event));
+                versions = loadedVersions;
+                loaded = true;
+            }
+            log.info("Token version table loaded for {} users", loadedVersions.size());
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Whether the table can answer yet; before startup completes callers fall back to the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Whether a token with this version is still valid for the user
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    /**
+     * Check the uid/ver claims of a token; tokens issued without them are left to the caller
+     */
+    public boolean accepts(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        Integer tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        if (userId == null || tokenVersion == null || !loaded) {
+            return true;
+        }
+        return isCurrent(userId, tokenVersion);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        apply(versions, event);
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+    }
+
+    private static void apply(Map<Long, Integer> table, UserChangedEvent event) {
+        if (event.isDeleted()) {
+            table.remove(event.getUserId());
+        } else {
+            table.put(event.getUserId(), event.getTokenVersion());
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.datacenter.workingpermit.service;
 
+import com.datacenter.workingpermit.dto.OTPScanRequest;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
 import com.datacenter.workingpermit.model.AccessLog;
 import com.datacenter.workingpermit.model.WorkingPermit;
-import com.datacenter.workingpermit.repository.AccessLogRepository;
+import com.datacenter.workingpermit.repository.UserRepository;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import com.datacenter.workingpermit.service.accesscontrol.AccessLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Camera Sync Service
@@ -24,8 +32,11 @@ import java.util.Optional;
 @Slf4j
 public class CameraSyncService {
 
-    private final AccessLogRepository accessLogRepository;
+    private final AccessLogService accessLogService;
     private final WorkingPermitRepository workingPermitRepository;
+    private final UserRepository userRepository;
+    private final OTPIndexService otpIndexService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.camera.enabled:true}")
     private boolean cameraEnabled;
@@ -43,85 +54,148 @@ public class CameraSyncService {
         }
 
         try {
-            log.info("=== OTP SCAN DEBUG START ===");
-            log.info("Raw scanned code: '{}' (length: {}, bytes: {})", scannedCode, scannedCode.length(),
-                    java.util.Arrays.toString(scannedCode.getBytes()));
-
             // Parse the scanned code - format: PERMIT-{permitNumber}-OTP-{otpCode}
             // or just the OTP code directly
-            String otpCode = extractOTPFromScan(scannedCode);
-
-            log.info("Extracted OTP code: '{}' (length: {}, bytes: {})", otpCode,
-                    otpCode != null ? otpCode.length() : 0,
-                    otpCode != null ? java.util.Arrays.toString(otpCode.getBytes()) : "null");
+            String otpCode = ScanCodeParser.extractOtp(scannedCode);
 
             if (otpCode == null || otpCode.isEmpty()) {
-                log.error("OTP extraction failed - code is null or empty");
+                log.warn("No valid OTP in scanned code (length: {})", scannedCode.length());
                 return OTPScanResult.failure("Format input tidak valid. Gunakan kode OTP 6 digit, bukan QR Code.");
             }
 
-            log.info("Looking for permit with OTP code: '{}' (length: {})", otpCode, otpCode.length());
+            // Resolve through the OTP store and the permit snapshots; fall back to the database
+            // for codes the store does not hold (e.g. the in-memory store lost them on restart)
+            Optional<OTPIndexService.IndexedPermit> indexed = otpIndexService.lookup(otpCode)
+                    .or(() -> workingPermitRepository.findByOtpCodeWithVisitor(otpCode).stream()
+                            .findFirst()
+                            .map(permit -> otpIndexService.backfill(PermitChangedEvent.from(permit))));
 
-            // Try exact match first
-            Optional<WorkingPermit> permitOpt = workingPermitRepository.findByOtpCode(otpCode);
+            if (indexed.isEmpty()) {
+                log.warn("No permit found for scanned OTP (index size: {})", otpIndexService.size());
+                return OTPScanResult
+                        .failure("Kode OTP tidak ditemukan. Pastikan permit sudah disetujui dan OTP masih valid.");
+            }
 
-            log.info("Exact match result: {}", permitOpt.isPresent() ? "FOUND" : "NOT FOUND");
+            return verifyIndexedPermit(indexed.get());
 
-            // If not found, try case-insensitive search for H2 database compatibility
-            if (permitOpt.isEmpty()) {
-                log.warn("Exact OTP match not found, trying case-insensitive search for: {}", otpCode);
-                permitOpt = workingPermitRepository.findByOtpCodeIgnoreCase(otpCode);
-                log.info("Case-insensitive match result: {}", permitOpt.isPresent() ? "FOUND" : "NOT FOUND");
-            }
+        } catch (Exception e) {
+            log.error("OTP barcode scan failed: {}", e.getMessage());
+            return OTPScanResult.failure("Gagal memproses barcode: " + e.getMessage());
+        }
+    }
 
-            // Debug: Log all permits with OTP codes in database
-            if (permitOpt.isEmpty()) {
-                List<WorkingPermit> allWithOtp = workingPermitRepository.findAllWithOtpCode();
-                log.warn("No permit found for OTP: '{}'. Total permits with OTP in DB: {}", otpCode, allWithOtp.size());
-                if (!allWithOtp.isEmpty() && allWithOtp.size() <= 10) {
-                    allWithOtp.forEach(p -> {
-                        log.info("DB OTP: '{}' (length: {}, bytes: {}) for permit: {}",
-                                p.getOtpCode(),
-                                p.getOtpCode() != null ? p.getOtpCode().length() : 0,
-                                p.getOtpCode() != null ? java.util.Arrays.toString(p.getOtpCode().getBytes()) : "null",
-                                p.getPermitNumber());
-                        log.info("Comparison: scanned='{}' vs db='{}', equals={}",
-                                otpCode, p.getOtpCode(), otpCode.equals(p.getOtpCode()));
-                    });
+    /**
+     * Resolve a batch of buffered turnstile scans.
+     * Index misses are resolved with one bulk permit query and the resulting
+     * access logs are written in a single batched insert.
+     */
+    @Transactional
+    public List<OTPScanResult> scanOTPBarcodes(List<OTPScanRequest> scans) {
+        if (!cameraEnabled) {
+            log.info("Camera/Scanner disabled. Rejecting batch of {} scans.", scans.size());
+            return scans.stream()
+                    .map(scan -> OTPScanResult.failure("Scanner tidak aktif. Gunakan verifikasi manual."))
+                    .toList();
+        }
+
+        int size = scans.size();
+        String[] otpCodes = new String[size];
+        OTPIndexService.IndexedPermit[] permits = new OTPIndexService.IndexedPermit[size];
+        Set<String> misses = new HashSet<>();
+
+        for (int i = 0; i < size; i++) {
+            OTPScanRequest scan = scans.get(i);
+            otpCodes[i] = scan != null ? ScanCodeParser.extractOtp(scan.getScannedCode()) : null;
+            if (otpCodes[i] != null && !otpCodes[i].isEmpty()) {
+                permits[i] = otpIndexService.lookup(otpCodes[i]).orElse(null);
+                if (permits[i] == null) {
+                    misses.add(otpCodes[i]);
                 }
-                log.info("=== OTP SCAN DEBUG END (FAILED) ===");
-                return OTPScanResult
-                        .failure("Kode OTP tidak ditemukan. Pastikan permit sudah disetujui dan OTP masih valid.");
             }
+        }
 
-            WorkingPermit permit = permitOpt.get();
-            log.info("=== OTP SCAN DEBUG END (SUCCESS) - Permit: {} ===", permit.getPermitNumber());
-
-            // Validate OTP expiry
-            if (permit.getOtpExpiryTime() != null && permit.getOtpExpiryTime().isBefore(LocalDateTime.now())) {
-                log.warn("OTP expired for permit: {}", permit.getPermitNumber());
-                return OTPScanResult.failure("Kode OTP sudah kadaluarsa");
+        // Codes the OTP store or the snapshots do not know - one bulk query
+        if (!misses.isEmpty()) {
+            Map<String, OTPIndexService.IndexedPermit> fromDatabase = new HashMap<>();
+            // Newest first, so an old permit that reused a code never shadows the current one
+            workingPermitRepository.findByOtpCodeInWithVisitor(misses).forEach(permit -> fromDatabase.computeIfAbsent(
+                    permit.getOtpCode(), code -> otpIndexService.backfill(PermitChangedEvent.from(permit))));
+            for (int i = 0; i < size; i++) {
+                if (permits[i] == null && otpCodes[i] != null) {
+                    permits[i] = fromDatabase.get(otpCodes[i]);
+                }
             }
+        }
 
-            // Check permit status
-            if (permit.getStatus() != WorkingPermit.PermitStatus.APPROVED) {
-                return OTPScanResult.failure("Permit belum disetujui. Status: " + permit.getStatus());
+        List<OTPScanResult> results = new ArrayList<>(size);
+        List<AccessLog> accessLogs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (otpCodes[i] == null || otpCodes[i].isEmpty()) {
+                results.add(OTPScanResult.failure("Format input tidak valid. Gunakan kode OTP 6 digit, bukan QR Code."));
+            } else if (permits[i] == null) {
+                results.add(OTPScanResult
+                        .failure("Kode OTP tidak ditemukan. Pastikan permit sudah disetujui dan OTP masih valid."));
+            } else {
+                OTPScanResult result = verifyIndexedPermit(permits[i]);
+                results.add(result);
+                accessLogs.add(buildTurnstileLog(scans.get(i), permits[i], result));
             }
+        }
 
-            log.info("OTP barcode verified successfully for permit: {}", permit.getPermitNumber());
+        if (!accessLogs.isEmpty()) {
+            accessLogService.recordAll(accessLogs);
+        }
 
-            return OTPScanResult.success(
-                    "Verifikasi berhasil",
-                    permit.getId(),
-                    permit.getPermitNumber(),
-                    permit.getVisitor().getFullName(),
-                    permit.getVisitor().getCompany(),
-                    permit.getDataCenter().name());
+        log.info("Batch scan processed: {} scans, {} resolved via database, {} access logs queued",
+                size, misses.size(), accessLogs.size());
+        return results;
+    }
 
-        } catch (Exception e) {
-            log.error("OTP barcode scan failed: {}", e.getMessage());
-            return OTPScanResult.failure("Gagal memproses barcode: " + e.getMessage());
+    /**
+     * Validate OTP expiry and permit status of a resolved scan
+     */
+    private OTPScanResult verifyIndexedPermit(OTPIndexService.IndexedPermit permit) {
+        // Validate OTP expiry
+        if (permit.getOtpExpiryTime() != null && permit.getOtpExpiryTime().isBefore(LocalDateTime.now())) {
+            log.warn("OTP expired for permit: {}", permit.getPermitNumber());
+            return OTPScanResult.failure("Kode OTP sudah kadaluarsa");
+        }
+
+        // Check permit status
+        if (permit.getStatus() != WorkingPermit.PermitStatus.APPROVED) {
+            return OTPScanResult.failure("Permit belum disetujui. Status: " + permit.getStatus());
         }
+
+        log.info("OTP barcode verified successfully for permit: {}", permit.getPermitNumber());
+
+        return OTPScanResult.success(
+                "Verifikasi berhasil",
+                permit.getPermitId(),
+                permit.getPermitNumber(),
+                permit.getVisitorName(),
+                permit.getCompany(),
+                permit.getDataCenter());
+    }
+
+    /**
+     * Build the access log row for a replayed turnstile scan
+     */
+    private AccessLog buildTurnstileLog(OTPScanRequest scan, OTPIndexService.IndexedPermit permit,
+            OTPScanResult result) {
+        String location = scan.getDeviceId() != null ? scan.getDeviceId() : "GATE_TURNSTILE";
+
+        return AccessLog.builder()
+                .workingPermit(workingPermitRepository.getReferenceById(permit.getPermitId()))
+                .user(userRepository.getReferenceById(permit.getVisitorId()))
+                .accessType(result.isSuccess() ? AccessLog.AccessType.ENTRY : AccessLog.AccessType.DENIED)
+                .status(result.isSuccess() ? AccessLog.AccessStatus.SUCCESS : AccessLog.AccessStatus.FAILED)
+                .location(location)
+                .deviceId(scan.getDeviceId())
+                .timestamp(scan.getScannedAt() != null ? scan.getScannedAt() : LocalDateTime.now())
+                .remarks(result.isSuccess()
+                        ? "Turnstile OTP scan at " + location
+                        : "Turnstile OTP scan rejected: " + result.getMessage())
+                .build();
     }
 
     /**
@@ -145,6 +219,7 @@ public class CameraSyncService {
             permit.setStatus(WorkingPermit.PermitStatus.ACTIVE);
             permit.setActualCheckInTime(LocalDateTime.now());
             WorkingPermit savedPermit = workingPermitRepository.save(permit);
+            eventPublisher.publishEvent(PermitChangedEvent.from(savedPermit));
 
             log.info("✅ Permit updated - New Status: {}, CheckIn Time: {}",
                     savedPermit.getStatus(), savedPermit.getActualCheckInTime());
@@ -187,6 +262,7 @@ public class CameraSyncService {
             permit.setStatus(WorkingPermit.PermitStatus.COMPLETED);
             permit.setActualCheckOutTime(LocalDateTime.now());
             workingPermitRepository.save(permit);
+            eventPublisher.publishEvent(PermitChangedEvent.from(permit));
 
             // Log the access
             logCameraEvent(permit, "CHECK_OUT", "GATE_CAMERA_01");
@@ -208,66 +284,6 @@ public class CameraSyncService {
         }
     }
 
-    /**
-     * Extract OTP code from scanned barcode
-     * Supports formats:
-     * - Direct OTP: "123456"
-     * - Permit format: "PERMIT-WP-2024-001-OTP-123456"
-     * - QR format: "otp:123456"
-     * 
-     * IMPORTANT: QR Code (PERMIT-XX-UUID) is NOT an OTP code!
-     */
-    private String extractOTPFromScan(String scannedCode) {
-        if (scannedCode == null || scannedCode.isEmpty()) {
-            return null;
-        }
-
-        // Clean and trim the input - remove all whitespaces
-        scannedCode = scannedCode.trim().replaceAll("\\s+", "");
-
-        log.debug("Extracting OTP from: '{}'", scannedCode);
-
-        // Check if this is a QR Code format - NOT an OTP!
-        // QR Code formats:
-        // - QR-{visitType}-{timestamp} (e.g., QR-AUDIT-1769700507200)
-        // - PERMIT-XX-UUID (e.g., PERMIT-12-a1b2c3d4-...)
-        if (scannedCode.matches("QR-[A-Z_]+-\\d+") ||
-                scannedCode.matches("PERMIT-\\d+-[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}")) {
-            log.warn("Detected QR Code format ({}), not OTP code. Use QR code scan endpoint instead.", scannedCode);
-            return null; // QR code is NOT OTP
-        }
-
-        // Format: otp:123456
-        if (scannedCode.toLowerCase().startsWith("otp:")) {
-            String extracted = scannedCode.substring(4).trim();
-            log.debug("Extracted from 'otp:' format: '{}'", extracted);
-            return extracted;
-        }
-
-        // Format: PERMIT-xxx-OTP-123456 (explicit OTP in the string)
-        if (scannedCode.toUpperCase().contains("-OTP-")) {
-            int otpIndex = scannedCode.toUpperCase().indexOf("-OTP-");
-            String extracted = scannedCode.substring(otpIndex + 5).trim();
-            log.debug("Extracted from 'PERMIT-xxx-OTP-' format: '{}'", extracted);
-            return extracted;
-        }
-
-        // Assume direct OTP code (6 digits ONLY)
-        if (scannedCode.matches("^\\d{6}$")) {
-            log.debug("Direct 6-digit OTP: '{}'", scannedCode);
-            return scannedCode;
-        }
-
-        // If input is all digits but not 6 digits
-        if (scannedCode.matches("^\\d+$")) {
-            log.warn("Input is numeric but not 6 digits: '{}' (length: {})", scannedCode, scannedCode.length());
-            return null;
-        }
-
-        log.warn("Could not extract valid OTP from: '{}'", scannedCode);
-        return null; // Return null if no valid OTP pattern found
-    }
-
     /**
      * Register scanner event for access log
      */
@@ -288,9 +304,9 @@ public class CameraSyncService {
                 .remarks(remarks)
                 .build();
 
-        AccessLog savedLog = accessLogRepository.save(accessLog);
-        log.info("📝 Access log saved: ID={}, Type={}, Permit={}, User={}",
-                savedLog.getId(), eventType, permit.getPermitNumber(), permit.getVisitor().getFullName());
+        accessLogService.record(accessLog);
+        log.info("📝 Access log queued: Type={}, Permit={}, User={}",
+                eventType, permit.getPermitNumber(), permit.getVisitor().getFullName());
     }
 
     /**
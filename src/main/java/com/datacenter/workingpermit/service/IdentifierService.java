@@ -0,0 +1,149 @@
+package com.datacenter.workingpermit.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Identifier Service
+ * Human-readable sequence numbers such as WP-20261017-000123.
+ * Each series is backed by a database sequence that advances by the block
+ * size; one nextval reserves a whole block, which the node then hands out
+ * from memory. nextval runs on the caller's own connection and is not rolled
+ * back with it, and no thread ever waits on a lock while holding a
+ * connection, so concurrent requests neither collide nor starve the pool.
+ * The number increases per node across days; the date is the issue date.
+ * Unused numbers of a block are skipped after a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdentifierService {
+
+    public static final String PERMIT_PREFIX = "WP";
+    public static final String ID_CARD_PREFIX = "TMP";
+
+    static final String PERMIT_SEQUENCE = "permit_number_seq";
+    static final String ID_CARD_SEQUENCE = "id_card_number_seq";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.identifier.block-size:50}")
+    private int blockSize;
+
+    private final Map<String, AtomicReference<Block>> blocks = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+
+    private SequenceSupport sequenceSupport;
+
+    @PostConstruct
+    void init() {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.identifier.block-size must be positive");
+        }
+        sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        createSequence(PERMIT_SEQUENCE);
+        createSequence(ID_CARD_SEQUENCE);
+    }
+
+    /**
+     * Next permit number, e.g. WP-20261017-000123
+     */
+    public String nextPermitNumber() {
+        return next(PERMIT_PREFIX, PERMIT_SEQUENCE);
+    }
+
+    /**
+     * Next temporary ID card number, e.g. TMP-20261017-000045
+     */
+    public String nextCardNumber() {
+        return next(ID_CARD_PREFIX, ID_CARD_SEQUENCE);
+    }
+
+    /**
+     * Issued numbers and database reservations so far
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("blockSize", blockSize);
+        stats.put("issued", issued.get());
+        stats.put("allocations", allocations.get());
+        return stats;
+    }
+
+    private String next(String prefix, String sequence) {
+        AtomicReference<Block> current = blocks.computeIfAbsent(sequence, key -> new AtomicReference<>(Block.EMPTY));
+
+        long value = current.get().take();
+        if (value < 0) {
+            // Block used up: reserve a fresh one without holding any lock. Threads
+            // refilling at the same time each get their own block; the newest is
+            // kept for everyone else and the rest of the others is skipped.
+            Block reserved = reserve(sequence);
+            value = reserved.take();
+            current.accumulateAndGet(reserved, (kept, candidate) -> candidate.start > kept.start ? candidate : kept);
+        }
+
+        issued.incrementAndGet();
+        return String.format("%s-%s-%06d", prefix, LocalDate.now().format(DAY_FORMAT), value);
+    }
+
+    /**
+     * Reserve [start, start + blockSize) with one nextval on the caller's connection
+     */
+    private Block reserve(String sequence) {
+        Long start = jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence), Long.class);
+        allocations.incrementAndGet();
+        log.debug("Reserved {} numbers of {} starting at {}", blockSize, sequence, start);
+        return new Block(start, start + blockSize);
+    }
+
+    private void createSequence(String sequence) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + blockSize);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + blockSize);
+    }
+
+    /**
+     * Numbers [start, end) reserved by one nextval; handed out lock-free
+     */
+    private static final class Block {
+        private static final Block EMPTY = new Block(0, 0);
+
+        private final long start;
+        private final long end;
+        private final AtomicLong next;
+
+        private Block(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+
+        /**
+         * Next unused number, or -1 when the block is used up
+         */
+        private long take() {
+            long value = next.getAndIncrement();
+            return value < end ? value : -1;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.datacenter.workingpermit.service;
+
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OTP Index Service
+ * In-memory snapshots of approved and active permits used by gate scanning.
+ * A scanned code is resolved to its permit by the OTP store's own code index
+ * and the snapshot is then a single hash lookup instead of a database query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OTPIndexService {
+
+    private static final Set<WorkingPermit.PermitStatus> INDEXED_STATUSES = EnumSet.of(
+            WorkingPermit.PermitStatus.APPROVED,
+            WorkingPermit.PermitStatus.ACTIVE);
+
+    private final WorkingPermitRepository permitRepository;
+    private final OTPService otpService;
+
+    // Replaced as a whole by rebuild; guarded by this for writers, read lock-free
+    private volatile Map<Long, IndexedPermit> permits = new ConcurrentHashMap<>();
+    // Changes seen while a rebuild is loading, replayed onto the new index; guarded by this
+    private List<PermitChangedEvent> pendingChanges;
+
+    /**
+     * Rebuild the index from the database once the application is up, and put
+     * persisted codes the OTP store lost (in-memory store after a restart) back.
+     * The new index is built aside and swapped in, so lookups never see it half-filled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            Map<Long, IndexedPermit> rebuilt = new ConcurrentHashMap<>();
+            permitRepository.findWithOtpCodeByStatusIn(INDEXED_STATUSES).forEach(permit -> {
+                PermitChangedEvent event = PermitChangedEvent.from(permit);
+                apply(rebuilt, event);
+                restoreOtp(event);
+            });
+
+            synchronized (this) {
+                // Changes committed while loading are at least as new as what was read
+                pendingChanges.forEach(event -> apply(rebuilt, event));
+                permits = rebuilt;
+            }
+            log.info("OTP index rebuilt with {} permits", rebuilt.size());
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Keep the index in sync with committed permit changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPermitChanged(PermitChangedEvent event) {
+        apply(permits, event);
+        if (pendingChanges != null) {
+            pendingChanges.add(event);
+        }
+    }
+
+    /**
+     * Add a permit found in the database after an index miss and return its snapshot.
+     * A permit the index already tracks is left alone, since a committed change may
+     * have arrived after the database read. Its code goes back into the OTP store
+     * if the store has none for it, so the next scan resolves without the database.
+     */
+    public synchronized IndexedPermit backfill(PermitChangedEvent event) {
+        if (event.getOtpCode() != null && INDEXED_STATUSES.contains(event.getStatus())
+                && !permits.containsKey(event.getPermitId())) {
+            onPermitChanged(event);
+        }
+        restoreOtp(event);
+        return IndexedPermit.from(event);
+    }
+
+    /**
+     * Resolve a scanned OTP code to its permit. Empty when the store holds no
+     * such unexpired code or the snapshot is missing or carries another code.
+     */
+    public Optional<IndexedPermit> lookup(String otpCode) {
+        if (otpCode == null || otpCode.isEmpty()) {
+            return Optional.empty();
+        }
+        String code = normalize(otpCode);
+        return otpService.findPermitIdByOTP(code)
+                .map(permits::get)
+                .filter(permit -> code.equals(permit.getOtpCode()));
+    }
+
+    /**
+     * Drop a permit from the index
+     */
+    public synchronized void remove(Long permitId) {
+        if (permitId != null) {
+            permits.remove(permitId);
+        }
+    }
+
+    /**
+     * Number of indexed permits
+     */
+    public int size() {
+        return permits.size();
+    }
+
+    private static String normalize(String otpCode) {
+        // toUpperCase returns the same instance when there is nothing to convert
+        return otpCode.toUpperCase(Locale.ROOT);
+    }
+
+    // Only an approved permit's code is still waiting to be used at check-in
+    private void restoreOtp(PermitChangedEvent event) {
+        if (event.getStatus() == WorkingPermit.PermitStatus.APPROVED) {
+            otpService.restoreOTP(event.getPermitId(), event.getOtpCode(), event.getOtpExpiryTime());
+        }
+    }
+
+    // Writers hold the service lock
+    private static void apply(Map<Long, IndexedPermit> target, PermitChangedEvent event) {
+        if (event.getOtpCode() == null || !INDEXED_STATUSES.contains(event.getStatus())) {
+            target.remove(event.getPermitId());
+        } else {
+            target.put(event.getPermitId(), IndexedPermit.from(event));
+        }
+    }
+
+    /**
+     * Immutable snapshot of the permit fields needed to answer a scan
+     */
+    @Value
+    public static class IndexedPermit {
+        Long permitId;
+        String permitNumber;
+        WorkingPermit.PermitStatus status;
+        String otpCode;
+        LocalDateTime otpExpiryTime;
+        Long visitorId;
+        String visitorName;
+        String company;
+        String dataCenter;
+
+        public static IndexedPermit from(PermitChangedEvent event) {
+            return new IndexedPermit(
+                    event.getPermitId(),
+                    event.getPermitNumber(),
+                    event.getStatus(),
+                    event.getOtpCode() != null ? normalize(event.getOtpCode()) : null,
+                    event.getOtpExpiryTime(),
+                    event.getVisitorId(),
+                    event.getVisitorName(),
+                    event.getCompany(),
+                    event.getDataCenter() != null ? event.getDataCenter().name() : null);
+        }
+    }
+}
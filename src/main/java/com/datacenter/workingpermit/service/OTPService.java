@@ -1,140 +1,128 @@
-package com.datacenter.workingpermit.service;
-
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-
-import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Service
-public class OTPService {
-
-    @Value("${app.otp.length:6}")
-    private int otpLength;
-
-    @Value("${app.otp.expiration:300000}") // 5 minutes in milliseconds
-    private long otpExpirationTime;
-
-    private final Map<String, OTPData> otpStore = new ConcurrentHashMap<>();
-    private final SecureRandom random = new SecureRandom();
-
-    /**
-     * Generate OTP code
-     */
-    public String generateOTP() {
-        StringBuilder otp = new StringBuilder();
-        for (int i = 0; i < otpLength; i++) {
-            otp.append(random.nextInt(10));
-        }
-        return otp.toString();
-    }
-
-    /**
-     * Generate and store OTP for a permit
-     */
-    public String generateAndStoreOTP(Long permitId) {
-        String otp = generateOTP();
-        LocalDateTime expiryTime = LocalDateTime.now().plusSeconds(otpExpirationTime / 1000);
-
-        String key = "PERMIT-" + permitId;
-        otpStore.put(key, new OTPData(otp, expiryTime));
-
-        return otp;
-    }
-
-    /**
-     * Verify OTP code
-     */
-    public boolean verifyOTP(Long permitId, String otpCode) {
-        String key = "PERMIT-" + permitId;
-        OTPData otpData = otpStore.get(key);
-
-        if (otpData == null) {
-            return false;
-        }
-
-        // Check if expired
-        if (LocalDateTime.now().isAfter(otpData.expiryTime)) {
-            otpStore.remove(key);
-            return false;
-        }
-
-        // Check if code matches
-        if (otpData.code.equals(otpCode)) {
-            otpStore.remove(key); // Remove after successful verification
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * Verify OTP code against WorkingPermit entity (Persistent verification)
-     */
-    public boolean verifyOTP(com.datacenter.workingpermit.model.WorkingPermit permit, String otpCode) {
-        if (permit.getOtpCode() == null || permit.getOtpExpiryTime() == null) {
-            return false;
-        }
-
-        // Check if expired
-        if (LocalDateTime.now().isAfter(permit.getOtpExpiryTime())) {
-            return false;
-        }
-
-        // Check if code matches
-        return permit.getOtpCode().equals(otpCode);
-    }
-
-    /**
-     * Check if OTP is expired
-     */
-    public boolean isOTPExpired(Long permitId) {
-        String key = "PERMIT-" + permitId;
-        OTPData otpData = otpStore.get(key);
-
-        if (otpData == null) {
-            return true;
-        }
-
-        return LocalDateTime.now().isAfter(otpData.expiryTime);
-    }
-
-    /**
-     * Invalidate OTP
-     */
-    public void invalidateOTP(Long permitId) {
-        String key = "PERMIT-" + permitId;
-        otpStore.remove(key);
-    }
-
-    /**
-     * Get OTP expiry time
-     */
-    public LocalDateTime getOTPExpiryTime(Long permitId) {
-        String key = "PERMIT-" + permitId;
-        OTPData otpData = otpStore.get(key);
-
-        return otpData != null ? otpData.expiryTime : null;
-    }
-
-    /**
-     * Clean up expired OTPs (should be called periodically)
-     */
-    public void cleanupExpiredOTPs() {
-        LocalDateTime now = LocalDateTime.now();
-        otpStore.entrySet().removeIf(entry -> now.isAfter(entry.getValue().expiryTime));
-    }
-
-    // Inner class to store OTP data
-    private static class OTPData {
-        private final String code;
-        private final LocalDateTime expiryTime;
-
-        public OTPData(String code, LocalDateTime expiryTime) {
-            this.code = code;
-            this.expiryTime = expiryTime;
-        }
-    }
-}
+package com.datacenter.workingpermit.service;
+
+import com.datacenter.workingpermit.service.otp.OtpStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class OTPService {
+
+    // Outstanding codes are unique, so a clash only means drawing again
+    private static final int MAX_CODE_ATTEMPTS = 20;
+
+    private final OtpStore otpStore; // selected by app.otp.store
+
+    @Value("${app.otp.length:6}")
+    private int otpLength;
+
+    @Value("${app.otp.expiration:300000}") // 5 minutes in milliseconds
+    private long otpExpirationTime;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Generate OTP code
+     */
+    public String generateOTP() {
+        StringBuilder otp = new StringBuilder();
+        for (int i = 0; i < otpLength; i++) {
+            otp.append(random.nextInt(10));
+        }
+        return otp.toString();
+    }
+
+    /**
+     * Generate and store OTP for a permit
+     */
+    public String generateAndStoreOTP(Long permitId) {
+        if (permitId == null)
+            throw new IllegalArgumentException("Permit ID cannot be null");
+
+        long expiresAt = System.currentTimeMillis() + otpExpirationTime;
+        for (int attempt = 0; attempt < MAX_CODE_ATTEMPTS; attempt++) {
+            String otp = generateOTP();
+            if (otpStore.put(permitId, otp, expiresAt)) {
+                return otp;
+            }
+        }
+        throw new IllegalStateException("Could not generate a unique OTP");
+    }
+
+    /**
+     * Verify OTP code. A matching code is consumed; if the caller's transaction
+     * rolls back the code is given back, so a failed check-in can be retried.
+     */
+    public boolean verifyOTP(Long permitId, String otpCode) {
+        if (permitId == null || otpCode == null) {
+            return false;
+        }
+        // Removed after successful verification, or when found expired
+        return otpStore.verify(permitId, otpCode);
+    }
+
+    /**
+     * Check that an outstanding OTP code belongs to the permit, without consuming it
+     */
+    public boolean isOTPValid(Long permitId, String otpCode) {
+        return permitId != null && otpCode != null && otpStore.findPermitId(otpCode) == permitId;
+    }
+
+    /**
+     * Check if OTP is expired
+     */
+    public boolean isOTPExpired(Long permitId) {
+        return permitId == null || otpStore.getExpiresAt(permitId) == 0;
+    }
+
+    /**
+     * Invalidate OTP
+     */
+    public void invalidateOTP(Long permitId) {
+        if (permitId != null) {
+            otpStore.remove(permitId);
+        }
+    }
+
+    /**
+     * Get OTP expiry time
+     */
+    public LocalDateTime getOTPExpiryTime(Long permitId) {
+        long expiresAt = permitId != null ? otpStore.getExpiresAt(permitId) : 0;
+        return expiresAt != 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()) : null;
+    }
+
+    /**
+     * Put a permit's persisted OTP back into the store unless the store already
+     * holds one for it or the code has expired. Returns whether it was stored.
+     */
+    public boolean restoreOTP(Long permitId, String otpCode, LocalDateTime expiryTime) {
+        if (permitId == null || otpCode == null || expiryTime == null || otpStore.getExpiresAt(permitId) != 0) {
+            return false;
+        }
+        long expiresAt = expiryTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return expiresAt > System.currentTimeMillis() && otpStore.put(permitId, otpCode, expiresAt);
+    }
+
+    /**
+     * Find the permit an outstanding OTP code was issued for
+     */
+    public Optional<Long> findPermitIdByOTP(String otpCode) {
+        long permitId = otpStore.findPermitId(otpCode);
+        return permitId >= 0 ? Optional.of(permitId) : Optional.empty();
+    }
+
+    /**
+     * Clean up expired OTPs (called by the expiry sweeper)
+     */
+    public int cleanupExpiredOTPs() {
+        return otpStore.purgeExpired();
+    }
+}
@@ -0,0 +1,140 @@
+package com.datacenter.workingpermit.service;
+
+import com.google.zxing.WriterException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QR Code Image Cache
+ * PNG cache keyed in memory by the SHA-256 of the QR code data, which is also
+ * the image's ETag. Looks in memory first (LRU, bounded by total bytes), then
+ * reads the permit's own QR code file, and only renders with ZXing when
+ * neither has the image. A permit's QR code data is set once, on approval,
+ * and its file is written with it, so the file always matches the data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QRCodeImageCache {
+
+    private final QRCodeService qrCodeService;
+
+    @Value("${app.qrcode.cache-max-bytes:16777216}")
+    private long maxBytes;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> images = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long diskHits;
+    private long misses;
+
+    /**
+     * Content key (hex SHA-256) of the given QR code data, also used as ETag
+     */
+    public static String keyOf(String qrCodeData) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(qrCodeData.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Get the PNG bytes of a permit's QR code with the given data
+     */
+    public byte[] getImage(Long permitId, String qrCodeData) throws WriterException, IOException {
+        String key = keyOf(qrCodeData);
+
+        byte[] image = getFromMemory(key);
+        if (image != null) {
+            return image;
+        }
+
+        Path file = Paths.get(qrCodeService.getPermitQRCodeImagePath(permitId));
+        if (Files.isReadable(file)) {
+            image = Files.readAllBytes(file);
+            synchronized (this) {
+                diskHits++;
+            }
+        } else {
+            // Batch approvals write the file after commit; render it now if asked for sooner
+            image = qrCodeService.generateQRCodeImage(qrCodeData);
+            try {
+                qrCodeService.savePermitQRCodeImage(permitId, image);
+            } catch (IOException e) {
+                log.warn("Could not store QR code image of permit {}: {}", permitId, e.getMessage());
+            }
+            synchronized (this) {
+                misses++;
+            }
+        }
+
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * Save a freshly rendered QR code as the permit's file and keep it in memory;
+     * returns the file path
+     */
+    public String store(Long permitId, String qrCodeData, byte[] image) throws IOException {
+        String path = qrCodeService.savePermitQRCodeImage(permitId, image);
+        put(keyOf(qrCodeData), image);
+        return path;
+    }
+
+    /**
+     * Cache hit/miss counters and current size
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", images.size());
+        stats.put("bytes", currentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("memoryHits", hits);
+        stats.put("diskHits", diskHits);
+        stats.put("misses", misses);
+        return stats;
+    }
+
+    private synchronized byte[] getFromMemory(String key) {
+        byte[] image = images.get(key);
+        if (image != null) {
+            hits++;
+        }
+        return image;
+    }
+
+    private synchronized void put(String key, byte[] image) {
+        if (image.length > maxBytes) {
+            return;
+        }
+        byte[] previous = images.put(key, image);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += image.length;
+
+        var eldest = images.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+}
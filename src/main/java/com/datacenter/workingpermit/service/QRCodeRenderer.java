@@ -0,0 +1,230 @@
+package com.datacenter.workingpermit.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * QR Code Renderer
+ * Encodes QR codes straight to 1-bit grayscale PNG bytes. The module matrix is
+ * scaled row by row into a per-thread raw buffer and deflated into a
+ * per-thread output buffer, skipping the full-size BitMatrix, BufferedImage
+ * and ImageIO steps. Output matches QRCodeWriter + MatrixToImageWriter
+ * (error correction L, 4-module quiet zone, same scaling and padding).
+ */
+@Service
+@Slf4j
+public class QRCodeRenderer {
+
+    private static final int QUIET_ZONE_SIZE = 4;
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] IHDR = { 'I', 'H', 'D', 'R' };
+    private static final byte[] IDAT = { 'I', 'D', 'A', 'T' };
+    private static final byte[] IEND = { 'I', 'E', 'N', 'D' };
+
+    private static final ThreadLocal<RenderContext> CONTEXT = ThreadLocal.withInitial(RenderContext::new);
+
+    @Value("${app.qrcode.width:300}")
+    private int width;
+
+    @Value("${app.qrcode.height:300}")
+    private int height;
+
+    @Value("${app.qrcode.render-parallelism:4}")
+    private int parallelism;
+
+    private ForkJoinPool renderPool;
+
+    @PostConstruct
+    void init() {
+        renderPool = new ForkJoinPool(Math.max(1, Math.min(parallelism, Runtime.getRuntime().availableProcessors())));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdown();
+    }
+
+    /**
+     * Render one QR code as PNG bytes
+     */
+    public byte[] render(String contents) throws WriterException {
+        if (contents == null || contents.isEmpty()) {
+            throw new IllegalArgumentException("QR code contents cannot be empty");
+        }
+        ByteMatrix matrix = Encoder.encode(contents, ErrorCorrectionLevel.L, null).getMatrix();
+        return CONTEXT.get().writePng(matrix, width, height);
+    }
+
+    /**
+     * Render many QR codes on the bounded render pool, results in input order
+     */
+    public List<byte[]> generateBatch(List<String> contents) {
+        if (contents.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return renderPool.submit(() -> contents.parallelStream()
+                    .map(this::renderUnchecked)
+                    .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("QR code batch rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("QR code batch rendering failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private byte[] renderUnchecked(String contents) {
+        try {
+            return render(contents);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Cannot encode QR code: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Per-thread scratch buffers, reused across renders
+     */
+    private static final class RenderContext {
+
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final CRC32 crc = new CRC32();
+        private byte[] raw = new byte[0];
+        private byte[] out = new byte[4096];
+        private int pos;
+
+        byte[] writePng(ByteMatrix matrix, int requestedWidth, int requestedHeight) {
+            int inputWidth = matrix.getWidth();
+            int inputHeight = matrix.getHeight();
+            int qrWidth = inputWidth + (QUIET_ZONE_SIZE * 2);
+            int qrHeight = inputHeight + (QUIET_ZONE_SIZE * 2);
+            int outputWidth = Math.max(requestedWidth, qrWidth);
+            int outputHeight = Math.max(requestedHeight, qrHeight);
+
+            int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+            int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+            int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+            // Raw scanlines: filter byte (0 = None) + packed 1-bit pixels, 1 = white
+            int rowBytes = (outputWidth + 7) / 8;
+            int stride = rowBytes + 1;
+            int rawLength = stride * outputHeight;
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            Arrays.fill(raw, 0, rawLength, (byte) 0xFF);
+            for (int y = 0; y < outputHeight; y++) {
+                raw[y * stride] = 0;
+            }
+
+            for (int inputY = 0; inputY < inputHeight; inputY++) {
+                int firstRow = topPadding + inputY * multiple;
+                int rowStart = firstRow * stride + 1;
+                for (int inputX = 0; inputX < inputWidth; inputX++) {
+                    if (matrix.get(inputX, inputY) == 1) {
+                        int x = leftPadding + inputX * multiple;
+                        for (int i = 0; i < multiple; i++, x++) {
+                            raw[rowStart + (x >> 3)] &= (byte) ~(0x80 >>> (x & 7));
+                        }
+                    }
+                }
+                // Every output row of a module row is identical
+                for (int r = 1; r < multiple; r++) {
+                    System.arraycopy(raw, rowStart, raw, rowStart + r * stride, rowBytes);
+                }
+            }
+
+            pos = 0;
+            write(PNG_SIGNATURE, 0, PNG_SIGNATURE.length);
+            writeHeader(outputWidth, outputHeight);
+            writeImageData(rawLength);
+            writeChunkStart(0, IEND);
+            writeChunkEnd(pos - 4);
+            return Arrays.copyOf(out, pos);
+        }
+
+        private void writeHeader(int imageWidth, int imageHeight) {
+            writeChunkStart(13, IHDR);
+            int dataStart = pos - 4;
+            writeInt(imageWidth);
+            writeInt(imageHeight);
+            ensureCapacity(5);
+            out[pos++] = 1; // bit depth
+            out[pos++] = 0; // color type: grayscale
+            out[pos++] = 0; // compression: deflate
+            out[pos++] = 0; // filter: adaptive
+            out[pos++] = 0; // interlace: none
+            writeChunkEnd(dataStart);
+        }
+
+        private void writeImageData(int rawLength) {
+            int lengthPos = pos;
+            writeChunkStart(0, IDAT);
+            int dataStart = pos - 4;
+
+            deflater.reset();
+            deflater.setInput(raw, 0, rawLength);
+            deflater.finish();
+            while (!deflater.finished()) {
+                ensureCapacity(1024);
+                pos += deflater.deflate(out, pos, out.length - pos);
+            }
+
+            int length = pos - dataStart - 4;
+            putInt(lengthPos, length);
+            writeChunkEnd(dataStart);
+        }
+
+        private void writeChunkStart(int length, byte[] type) {
+            writeInt(length);
+            write(type, 0, type.length);
+        }
+
+        // CRC covers chunk type and data
+        private void writeChunkEnd(int typeStart) {
+            crc.reset();
+            crc.update(out, typeStart, pos - typeStart);
+            writeInt((int) crc.getValue());
+        }
+
+        private void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, out, pos, length);
+            pos += length;
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(4);
+            putInt(pos, value);
+            pos += 4;
+        }
+
+        private void putInt(int at, int value) {
+            out[at] = (byte) (value >>> 24);
+            out[at + 1] = (byte) (value >>> 16);
+            out[at + 2] = (byte) (value >>> 8);
+            out[at + 3] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (pos + extra > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, pos + extra));
+            }
+        }
+    }
+}
@@ -1,28 +1,25 @@
 package com.datacenter.workingpermit.service;
 
-import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 public class QRCodeService {
 
-    @Value("${app.qrcode.width:300}")
-    private int qrCodeWidth;
+    private static final String QR_CODE_DIR = "uploads/qrcodes/";
 
-    @Value("${app.qrcode.height:300}")
-    private int qrCodeHeight;
+    private final QRCodeRenderer qrCodeRenderer;
 
     /**
      * Generate QR Code data string (unique identifier)
@@ -45,16 +42,14 @@ public class QRCodeService {
      * Generate QR Code image as byte array
      */
     public byte[] generateQRCodeImage(String qrCodeData) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(
-                qrCodeData,
-                BarcodeFormat.QR_CODE,
-                qrCodeWidth,
-                qrCodeHeight);
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-        return outputStream.toByteArray();
+        return qrCodeRenderer.render(qrCodeData);
+    }
+
+    /**
+     * Generate QR Code images for many payloads in parallel (same order as input)
+     */
+    public List<byte[]> generateQRCodeImages(List<String> qrCodeData) {
+        return qrCodeRenderer.generateBatch(qrCodeData);
     }
 
     /**
@@ -69,23 +64,50 @@ public class QRCodeService {
      * Save QR Code to file and return file path
      */
     public String saveQRCodeToFile(String qrCodeData, String fileName) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(
-                qrCodeData,
-                BarcodeFormat.QR_CODE,
-                qrCodeWidth,
-                qrCodeHeight);
-
-        String filePath = "uploads/qrcodes/" + fileName + ".png";
-        Path path = FileSystems.getDefault().getPath(filePath);
-        if (path.getParent() != null) {
-            java.nio.file.Files.createDirectories(path.getParent());
+        return saveQRCodeImage(qrCodeRenderer.render(qrCodeData), fileName);
+    }
+
+    /**
+     * Save a permit's rendered QR Code PNG to its file and return the file path
+     */
+    public String savePermitQRCodeImage(Long permitId, byte[] image) throws IOException {
+        return saveQRCodeImage(image, permitFileName(permitId));
+    }
+
+    /**
+     * File path a permit's QR Code image is (or will be) saved to
+     */
+    public String getPermitQRCodeImagePath(Long permitId) {
+        return getQRCodeImagePath(permitFileName(permitId));
+    }
+
+    /**
+     * Save already rendered QR Code PNG bytes to file and return file path
+     */
+    public String saveQRCodeImage(byte[] image, String fileName) throws IOException {
+        String filePath = getQRCodeImagePath(fileName);
+        Path path = FileSystems.getDefault().getPath(filePath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        // Write to a temp file first so readers (the image cache) never see a partial PNG
+        Path temp = Files.createTempFile(path.getParent(), "qr-", ".tmp");
+        try {
+            Files.write(temp, image);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
         }
-        MatrixToImageWriter.writeToPath(bitMatrix, "PNG", path);
 
         return filePath;
     }
 
+    private static String getQRCodeImagePath(String fileName) {
+        return QR_CODE_DIR + fileName + ".png";
+    }
+
+    private static String permitFileName(Long permitId) {
+        return "permit-" + permitId;
+    }
+
     /**
      * Validate QR Code format
      */
@@ -0,0 +1,206 @@
+package com.datacenter.workingpermit.service;
+
+/**
+ * Scan Code Parser
+ * Single-pass, character-level tokenizer for codes read by the gate scanners.
+ *
+ * Supported formats (whitespace anywhere in the input is ignored):
+ * - Direct OTP: "123456"
+ * - Permit format: "PERMIT-WP-2024-001-OTP-123456"
+ * - QR format: "otp:123456"
+ *
+ * QR codes (QR-{visitType}-{timestamp} and PERMIT-{id}-{uuid}) are recognised
+ * and rejected, they are NOT OTP codes. No regex is compiled and no
+ * intermediate strings are created; the only allocation is the returned OTP.
+ */
+public final class ScanCodeParser {
+
+    private static final int INITIAL_BUFFER_SIZE = 128;
+    private static final int OTP_LENGTH = 6;
+    private static final int UUID_LENGTH = 36;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[INITIAL_BUFFER_SIZE]);
+
+    private ScanCodeParser() {
+    }
+
+    /**
+     * Extract the OTP code from a scanned value, or null if it carries none
+     */
+    public static String extractOtp(String scannedCode) {
+        if (scannedCode == null || scannedCode.isEmpty()) {
+            return null;
+        }
+
+        // Trim edges (same rule as String.trim) and compact inner whitespace
+        int start = 0;
+        int end = scannedCode.length();
+        while (start < end && scannedCode.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && scannedCode.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        char[] buf = buffer(end - start);
+        int len = 0;
+        for (int i = start; i < end; i++) {
+            char c = scannedCode.charAt(i);
+            if (!isWhitespace(c)) {
+                buf[len++] = c;
+            }
+        }
+        boolean unchanged = start == 0 && len == scannedCode.length();
+
+        if (isQrCode(buf, len) || isPermitUuid(buf, len)) {
+            return null;
+        }
+
+        // Format: otp:123456
+        if (len >= 4 && startsWithIgnoreCase(buf, "otp:")) {
+            return trimmedString(buf, 4, len);
+        }
+
+        // Format: PERMIT-xxx-OTP-123456
+        int otpMarker = indexOfOtpMarker(buf, len);
+        if (otpMarker >= 0) {
+            return trimmedString(buf, otpMarker + 5, len);
+        }
+
+        // Direct OTP code (6 digits ONLY)
+        if (len == OTP_LENGTH && isDigits(buf, 0, len)) {
+            return unchanged ? scannedCode : new String(buf, 0, len);
+        }
+
+        return null;
+    }
+
+    /**
+     * QR-[A-Z_]+-\d+
+     */
+    private static boolean isQrCode(char[] buf, int len) {
+        if (len < 6 || buf[0] != 'Q' || buf[1] != 'R' || buf[2] != '-') {
+            return false;
+        }
+        int i = 3;
+        while (i < len && ((buf[i] >= 'A' && buf[i] <= 'Z') || buf[i] == '_')) {
+            i++;
+        }
+        if (i == 3 || i >= len || buf[i] != '-') {
+            return false;
+        }
+        i++;
+        return i < len && isDigits(buf, i, len);
+    }
+
+    /**
+     * PERMIT-\d+-{lowercase uuid}
+     */
+    private static boolean isPermitUuid(char[] buf, int len) {
+        if (len < 7 + 2 + UUID_LENGTH || !startsWith(buf, "PERMIT-")) {
+            return false;
+        }
+        int i = 7;
+        while (i < len && isDigit(buf[i])) {
+            i++;
+        }
+        if (i == 7 || i >= len || buf[i] != '-') {
+            return false;
+        }
+        i++;
+        if (len - i != UUID_LENGTH) {
+            return false;
+        }
+        for (int j = 0; j < UUID_LENGTH; j++) {
+            char c = buf[i + j];
+            boolean dash = j == 8 || j == 13 || j == 18 || j == 23;
+            if (dash ? c != '-' : !isLowerHex(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Case-insensitive position of the first "-OTP-"
+     */
+    private static int indexOfOtpMarker(char[] buf, int len) {
+        for (int i = 0; i + 5 <= len; i++) {
+            if (buf[i] == '-'
+                    && Character.toUpperCase(buf[i + 1]) == 'O'
+                    && Character.toUpperCase(buf[i + 2]) == 'T'
+                    && Character.toUpperCase(buf[i + 3]) == 'P'
+                    && buf[i + 4] == '-') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * buf[from, to) without leading/trailing control characters (same rule as String.trim)
+     */
+    private static String trimmedString(char[] buf, int from, int to) {
+        while (from < to && buf[from] <= ' ') {
+            from++;
+        }
+        while (to > from && buf[to - 1] <= ' ') {
+            to--;
+        }
+        return new String(buf, from, to - from);
+    }
+
+    private static boolean startsWith(char[] buf, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buf[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithIgnoreCase(char[] buf, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(buf[i]) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isDigit(buf[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLowerHex(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f');
+    }
+
+    /**
+     * Same character class as the regex \s
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static char[] buffer(int capacity) {
+        char[] buf = BUFFER.get();
+        if (buf.length < capacity) {
+            buf = new char[Math.max(capacity, buf.length * 2)];
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+}
@@ -0,0 +1,415 @@
+package com.datacenter.workingpermit.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SMTP Mail Transport
+ * Single outgoing path for all mail. Messages are queued and flushed in
+ * batches. Each batch goes out over one of {@code connections} pooled SMTP
+ * transports that stay connected and authenticated between batches; a pooled
+ * connection is checked with isConnected() before use and reconnected if the
+ * server dropped it. Plain-text notifications to the same recipient that
+ * arrive within the coalesce window are merged into one digest mail.
+ *
+ * Transports come from the JavaMailSender's session and settings, so pointing
+ * spring.mail.host/port at a local SMTP stand-in (e.g. GreenMail) exercises
+ * the full path.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SmtpMailTransport {
+
+    private final JavaMailSenderImpl mailSender;
+
+    @Value("${spring.mail.username:noreply@datacenter.com}")
+    private String fromEmail;
+
+    @Value("${app.email.transport.connections:2}")
+    private int connections;
+
+    @Value("${app.email.transport.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.email.transport.coalesce-window:3000}")
+    private long coalesceWindowMs;
+
+    private ExecutorService senders;
+    // Most recently used first, so a quiet period keeps reusing one warm connection
+    private final BlockingDeque<Transport> pool = new LinkedBlockingDeque<>();
+
+    // Ready-to-send messages and their completion futures
+    private final List<Outgoing> ready = new ArrayList<>();
+    // Plain-text notifications waiting to be merged, keyed by recipient
+    private final Map<String, Digest> digests = new LinkedHashMap<>();
+
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+
+    @PostConstruct
+    void init() throws MessagingException {
+        Session session = mailSender.getSession();
+        // Same protocol resolution as JavaMailSenderImpl
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            protocol = session.getProperty("mail.transport.protocol");
+        }
+        if (protocol == null) {
+            protocol = JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        }
+
+        int size = Math.max(1, connections);
+        for (int i = 0; i < size; i++) {
+            pool.add(session.getTransport(protocol));
+        }
+        AtomicInteger counter = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "smtp-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flush(true);
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+        for (Transport transport : pool) {
+            close(transport);
+        }
+    }
+
+    /**
+     * Create an empty message for the caller to fill in
+     */
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Queue a fully built message; it goes out with the next batch
+     */
+    public CompletableFuture<Void> send(MimeMessage message) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (this) {
+            ready.add(new Outgoing(message, List.of(result)));
+        }
+        return result;
+    }
+
+    /**
+     * Queue a plain-text notification that may be merged with others to the same recipient
+     */
+    public CompletableFuture<Void> sendText(String to, String subject, String text, String attachmentPath) {
+        if (to == null || to.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Recipient email is empty"));
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (this) {
+            digests.computeIfAbsent(to.toLowerCase(), key -> new Digest(to, System.currentTimeMillis()))
+                    .add(new DigestEntry(subject, text, attachmentPath, result));
+        }
+        return result;
+    }
+
+    /**
+     * Transport counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("messagesFailed", messagesFailed.get());
+        stats.put("batchesSent", batchesSent.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("connects", connects.get());
+        synchronized (this) {
+            stats.put("queued", ready.size());
+            stats.put("pendingDigests", digests.size());
+        }
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.transport.flush-interval:500}")
+    public void flush() {
+        flush(false);
+    }
+
+    private void flush(boolean all) {
+        List<Outgoing> toSend;
+        List<Digest> dueDigests = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Iterator<Digest> it = digests.values().iterator();
+            while (it.hasNext()) {
+                Digest digest = it.next();
+                if (all || now - digest.firstQueuedAt >= coalesceWindowMs) {
+                    dueDigests.add(digest);
+                    it.remove();
+                }
+            }
+            if (ready.isEmpty() && dueDigests.isEmpty()) {
+                return;
+            }
+            toSend = new ArrayList<>(ready);
+            ready.clear();
+        }
+
+        for (Digest digest : dueDigests) {
+            try {
+                toSend.add(new Outgoing(buildDigest(digest), digest.futures()));
+            } catch (Exception e) {
+                digest.futures().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+
+        for (int from = 0; from < toSend.size(); from += batchSize) {
+            List<Outgoing> batch = toSend.subList(from, Math.min(from + batchSize, toSend.size()));
+            try {
+                senders.execute(() -> sendBatch(batch));
+            } catch (RejectedExecutionException e) {
+                sendBatch(batch);
+            }
+        }
+    }
+
+    private void sendBatch(List<Outgoing> batch) {
+        Transport transport;
+        try {
+            transport = pool.takeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(batch, new MailSendException("Interrupted while waiting for an SMTP connection", e));
+            return;
+        }
+
+        Map<Object, Exception> failures;
+        try {
+            failures = sendOver(transport, batch);
+        } catch (MailException e) {
+            // Connection or authentication failure - nothing was sent
+            close(transport);
+            failAll(batch, e);
+            return;
+        } finally {
+            pool.offerFirst(transport);
+        }
+
+        batchesSent.incrementAndGet();
+        for (Outgoing outgoing : batch) {
+            Exception failure = failures.get(outgoing.getMessage());
+            if (failure != null) {
+                messagesFailed.incrementAndGet();
+                outgoing.getFutures().forEach(future -> future.completeExceptionally(failure));
+            } else {
+                messagesSent.incrementAndGet();
+                outgoing.getFutures().forEach(future -> future.complete(null));
+            }
+        }
+        log.debug("Sent mail batch of {} ({} failed)", batch.size(), failures.size());
+    }
+
+    /**
+     * Send each message of the batch over the pooled connection and return the
+     * per-message failures. A connection the server dropped is reconnected
+     * once, then the failed message is retried. Throws only if the first
+     * connection attempt fails, i.e. nothing was sent.
+     */
+    private Map<Object, Exception> sendOver(Transport transport, List<Outgoing> batch) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            MimeMessage message = batch.get(i).getMessage();
+            try {
+                prepare(message);
+                ensureConnected(transport);
+                try {
+                    transport.sendMessage(message, recipients(message));
+                } catch (MessagingException e) {
+                    if (transport.isConnected()) {
+                        throw e;
+                    }
+                    ensureConnected(transport);
+                    transport.sendMessage(message, recipients(message));
+                }
+            } catch (MailException e) {
+                if (i == 0) {
+                    throw e;
+                }
+                // Lost the connection mid-batch: what was sent stays sent
+                batch.subList(i, batch.size()).forEach(rest -> failures.put(rest.getMessage(), e));
+                break;
+            } catch (MessagingException e) {
+                failures.put(message, e);
+            }
+        }
+        return failures;
+    }
+
+    private void ensureConnected(Transport transport) {
+        try {
+            if (transport.isConnected()) {
+                return;
+            }
+            // The server may have closed an idle connection; close our side before reconnecting
+            close(transport);
+            transport.connect(mailSender.getHost(), mailSender.getPort(),
+                    mailSender.getUsername(), mailSender.getPassword());
+            connects.incrementAndGet();
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Could not connect to the SMTP server", e);
+        }
+    }
+
+    /**
+     * Same header handling as JavaMailSenderImpl before it hands a message to the transport
+     */
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    private static Address[] recipients(MimeMessage message) throws MessagingException {
+        Address[] recipients = message.getAllRecipients();
+        return recipients != null ? recipients : new Address[0];
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            // Already closed or the connection is gone
+        }
+    }
+
+    private void failAll(List<Outgoing> batch, Exception e) {
+        log.error("Failed to send mail batch of {}: {}", batch.size(), e.getMessage());
+        messagesFailed.addAndGet(batch.size());
+        batch.forEach(outgoing -> outgoing.getFutures().forEach(future -> future.completeExceptionally(e)));
+    }
+
+    private MimeMessage buildDigest(Digest digest) throws MessagingException {
+        List<DigestEntry> entries = digest.entries;
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(digest.to);
+
+        if (entries.size() == 1) {
+            helper.setSubject(entries.get(0).getSubject());
+            helper.setText(entries.get(0).getText());
+        } else {
+            coalesced.addAndGet(entries.size() - 1);
+            helper.setSubject(entries.size() + " notifications - Data Center Working Permit");
+            StringBuilder body = new StringBuilder();
+            for (DigestEntry entry : entries) {
+                if (body.length() > 0) {
+                    body.append("\n\n----------------------------------------\n\n");
+                }
+                body.append(entry.getSubject()).append("\n\n").append(entry.getText());
+            }
+            helper.setText(body.toString());
+        }
+
+        Set<String> attachments = new LinkedHashSet<>();
+        entries.forEach(entry -> {
+            if (entry.getAttachmentPath() != null && !entry.getAttachmentPath().isEmpty()) {
+                attachments.add(entry.getAttachmentPath());
+            }
+        });
+        for (String attachmentPath : attachments) {
+            File file = new File(attachmentPath);
+            if (file.exists()) {
+                helper.addAttachment(file.getName(), file);
+            } else {
+                log.warn("Attachment file not found: {}", attachmentPath);
+            }
+        }
+        return mimeMessage;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Outgoing {
+        private final MimeMessage message;
+        private final List<CompletableFuture<Void>> futures;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class DigestEntry {
+        private final String subject;
+        private final String text;
+        private final String attachmentPath;
+        private final CompletableFuture<Void> future;
+    }
+
+    private static final class Digest {
+        private final String to;
+        private final long firstQueuedAt;
+        private final List<DigestEntry> entries = new ArrayList<>();
+
+        Digest(String to, long firstQueuedAt) {
+            this.to = to;
+            this.firstQueuedAt = firstQueuedAt;
+        }
+
+        void add(DigestEntry entry) {
+            entries.add(entry);
+        }
+
+        List<CompletableFuture<Void>> futures() {
+            return entries.stream().map(DigestEntry::getFuture).toList();
+        }
+    }
+}
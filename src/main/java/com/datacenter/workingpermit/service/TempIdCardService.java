@@ -1,10 +1,12 @@
 package com.datacenter.workingpermit.service;
 
+import com.datacenter.workingpermit.event.IdCardChangedEvent;
 import com.datacenter.workingpermit.model.TempIdCard;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.TempIdCardRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,8 @@ import java.util.UUID;
 public class TempIdCardService {
 
     private final TempIdCardRepository idCardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdentifierService identifierService;
 
     /**
      * Issue temporary ID card for a permit
@@ -35,7 +39,7 @@ public class TempIdCardService {
         }
 
         // Generate card number and RFID tag
-        String cardNumber = generateCardNumber();
+        String cardNumber = identifierService.nextCardNumber();
         String rfidTag = generateRFIDTag();
 
         // Calculate expiry time (same as scheduled end time)
@@ -50,18 +54,9 @@ public class TempIdCardService {
                 .isActive(true)
                 .build();
 
-        return idCardRepository.save(idCard);
-    }
-
-    /**
-     * Generate unique card number
-     */
-    private String generateCardNumber() {
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        if (timestamp.length() > 8) {
-            return "TMP-" + timestamp.substring(timestamp.length() - 8);
-        }
-        return "TMP-" + timestamp;
+        TempIdCard savedCard = idCardRepository.save(idCard);
+        eventPublisher.publishEvent(IdCardChangedEvent.from(savedCard, permit));
+        return savedCard;
     }
 
     /**
@@ -85,6 +80,7 @@ public class TempIdCardService {
         idCard.setDeactivationReason(reason);
 
         idCardRepository.save(idCard);
+        eventPublisher.publishEvent(IdCardChangedEvent.from(idCard, idCard.getWorkingPermit()));
     }
 
     /**
@@ -0,0 +1,293 @@
+package com.datacenter.workingpermit.service.accesscontrol;
+
+import com.datacenter.workingpermit.event.AccessRecordedEvent;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.exception.ServiceUnavailableException;
+import com.datacenter.workingpermit.model.AccessLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access Event Stream Service
+ * Pushes check-in, check-out, door access, denied access and occupancy
+ * updates to connected security desks over Server-Sent Events, so the
+ * dashboard does not need to poll. Every desk has its own bounded queue,
+ * drained by a small sender pool; a desk whose queue overflows or whose send
+ * stalls is disconnected instead of holding up the others.
+ *
+ * Events: snapshot (on connect), check-in, check-out, access, access-denied, occupancy
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccessEventStreamService {
+
+    private final OccupancyService occupancyService;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Value("${app.access-stream.timeout:1800000}")
+    private long emitterTimeout;
+
+    @Value("${app.access-stream.max-subscribers:200}")
+    private int maxSubscribers;
+
+    @Value("${app.access-stream.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.access-stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.access-stream.send-timeout:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.access-stream.retry-after:30}")
+    private long retryAfterSeconds;
+
+    // Sends happen off the caller's thread so a slow desk never delays a check-in
+    private ExecutorService sender;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "access-event-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register a new dashboard connection and send it the current state
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many open access event streams", retryAfterSeconds);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(emitter, queueCapacity);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("stats", occupancyService.getTodayStats());
+        snapshot.put("checkedIn", occupancyService.getCheckedInVisitors());
+        enqueue(subscriber, new Event("snapshot", snapshot));
+
+        log.debug("Access event stream opened ({} subscribers)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Number of connected dashboards
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Dashboards disconnected so far for falling behind
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Forward access events once the occupancy model has applied them
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onAccessRecorded(AccessRecordedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("permitId", event.getPermitId());
+        payload.put("permitNumber", event.getPermitNumber());
+        payload.put("userId", event.getUserId());
+        payload.put("visitorName", event.getVisitorName());
+        payload.put("accessType", event.getAccessType() != null ? event.getAccessType().name() : null);
+        payload.put("status", event.getStatus() != null ? event.getStatus().name() : null);
+        payload.put("location", event.getLocation());
+        payload.put("timestamp", event.getTimestamp());
+        payload.put("remarks", event.getRemarks());
+
+        OccupancyService.CheckedInVisitor visitor = occupancyService.getCheckedInVisitor(event.getPermitId());
+        if (visitor != null) {
+            payload.put("visitor", visitor);
+            if (event.getPermitNumber() == null) {
+                payload.put("permitNumber", visitor.getPermitNumber());
+            }
+            if (event.getVisitorName() == null) {
+                payload.put("visitorName", visitor.getVisitorName());
+            }
+        }
+
+        broadcast(eventName(event), payload);
+        if (event.getStatus() == AccessLog.AccessStatus.SUCCESS) {
+            broadcast("occupancy", occupancyService.getTodayStats());
+        }
+    }
+
+    /**
+     * Permit status changes (check-in, check-out, cancellation) move occupancy
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPermitChanged(PermitChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            broadcast("occupancy", occupancyService.getTodayStats());
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies, and disconnect desks whose
+     * current send has been blocked longer than the send timeout
+     */
+    @Scheduled(fixedRateString = "${app.access-stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        long stalledSince = System.currentTimeMillis() - sendTimeoutMs;
+        subscribers.forEach(subscriber -> {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0 && sendingSince < stalledSince) {
+                drop(subscriber, "send blocked for over " + sendTimeoutMs + " ms");
+            } else {
+                enqueue(subscriber, Event.HEARTBEAT);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private static String eventName(AccessRecordedEvent event) {
+        if (event.getAccessType() == AccessLog.AccessType.DENIED
+                || event.getStatus() != AccessLog.AccessStatus.SUCCESS) {
+            return "access-denied";
+        }
+        return switch (event.getAccessType()) {
+            case CHECK_IN -> "check-in";
+            case CHECK_OUT -> "check-out";
+            default -> "access";
+        };
+    }
+
+    private void broadcast(String name, Object data) {
+        Event event = new Event(name, data);
+        subscribers.forEach(subscriber -> enqueue(subscriber, event));
+    }
+
+    /**
+     * Queue an event for one desk and make sure a sender is draining its queue
+     */
+    private void enqueue(Subscriber subscriber, Event event) {
+        if (!subscriber.queue.offer(event)) {
+            drop(subscriber, "event queue full");
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                log.debug("Access event stream is shutting down, dropping event");
+            }
+        }
+    }
+
+    /**
+     * Send everything queued for one desk; only one drain per desk runs at a time
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            Event event;
+            while ((event = subscriber.queue.poll()) != null) {
+                if (!send(subscriber, event)) {
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber subscriber, Event event) {
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            subscriber.emitter.send(event.name == null
+                    ? SseEmitter.event().comment("heartbeat")
+                    : SseEmitter.event().name(event.name).data(event.data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            dropped.incrementAndGet();
+            log.warn("Disconnecting slow access event stream: {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * One connected desk and the events waiting to be sent to it
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Start of the send in progress, or 0 when idle
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    /**
+     * Named event with its JSON payload; no name means a heartbeat comment
+     */
+    private record Event(String name, Object data) {
+        private static final Event HEARTBEAT = new Event(null, null);
+    }
+}
@@ -1,33 +1,51 @@
 package com.datacenter.workingpermit.service.accesscontrol;
 
+import com.datacenter.workingpermit.dto.AccessLogPage;
+import com.datacenter.workingpermit.dto.AccessLogQuery;
+import com.datacenter.workingpermit.dto.AccessLogResponse;
+import com.datacenter.workingpermit.dto.KeysetCursor;
+import com.datacenter.workingpermit.dto.LocationOccupant;
+import com.datacenter.workingpermit.event.AccessRecordedEvent;
 import com.datacenter.workingpermit.model.AccessLog;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.AccessLogRepository;
+import com.datacenter.workingpermit.repository.UserRepository;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccessLogService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(2000, 1, 1, 0, 0);
+
     private final AccessLogRepository accessLogRepository;
     private final WorkingPermitRepository permitRepository;
+    private final UserRepository userRepository;
+    private final AccessLogWriter accessLogWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Log access attempt
+     * Log access attempt (persisted asynchronously by the write-behind writer)
      */
-    @Transactional
-    public AccessLog logAccess(
+    public void logAccess(
             WorkingPermit permit,
             AccessLog.AccessType accessType,
             String location,
@@ -47,9 +65,59 @@ public class AccessLogService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        AccessLog savedLog = accessLogRepository.save(logEntry);
-        log.info("✅ Access log saved: ID={}, Type={}", savedLog.getId(), accessType);
-        return savedLog;
+        record(logEntry);
+    }
+
+    /**
+     * Log access attempt by permit and visitor ID, without loading either entity
+     */
+    public void logAccess(
+            Long permitId,
+            Long visitorId,
+            AccessLog.AccessType accessType,
+            String location,
+            AccessLog.AccessStatus status,
+            String remarks) {
+
+        AccessLog logEntry = AccessLog.builder()
+                .workingPermit(permitRepository.getReferenceById(permitId))
+                .user(userRepository.getReferenceById(visitorId))
+                .accessType(accessType)
+                .location(location)
+                .status(status)
+                .remarks(remarks)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        record(logEntry);
+    }
+
+    /**
+     * Queue an access log for writing and announce it to in-memory listeners.
+     * Inside a transaction both happen only once it commits, so a rolled-back
+     * check-in leaves no log behind.
+     */
+    public void record(AccessLog logEntry) {
+        // Listeners are transactional, so the event is held back until commit as well
+        eventPublisher.publishEvent(AccessRecordedEvent.from(logEntry));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accessLogWriter.submit(logEntry);
+                }
+            });
+        } else {
+            accessLogWriter.submit(logEntry);
+        }
+    }
+
+    /**
+     * Queue several access logs for writing and announce them
+     */
+    public void recordAll(List<AccessLog> logEntries) {
+        logEntries.forEach(this::record);
     }
 
     /**
@@ -81,19 +149,63 @@ public class AccessLogService {
     }
 
     /**
-     * Get all access logs (ordered by timestamp desc)
+     * Get one page of access logs (newest first) using keyset pagination on (timestamp, id)
      */
-    public List<AccessLog> getAllAccessLogs() {
-        return accessLogRepository.findAllByOrderByTimestampDesc();
+    public AccessLogPage getAccessLogPage(AccessLogQuery query) {
+        int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        KeysetCursor after = KeysetCursor.decode(query.getCursor());
+        LocalDateTime afterTimestamp = after != null ? after.getTimestamp() : null;
+        Long afterId = after != null ? after.getId() : null;
+
+        // Fetch one extra row to know whether another page exists
+        List<AccessLogResponse> rows = accessLogRepository.findPage(query, afterTimestamp, afterId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<AccessLogResponse> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            AccessLogResponse last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getTimestamp(), last.getId());
+        }
+        return new AccessLogPage(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Get access logs by location, optionally within [from, to)
+     */
+    public Page<AccessLogResponse> getAccessLogsByLocation(
+            String location,
+            LocalDateTime from,
+            LocalDateTime to,
+            int page,
+            int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return accessLogRepository.findByLocationInWindow(
+                location,
+                from != null ? from : EARLIEST,
+                to != null ? to : LocalDateTime.now().plusDays(1),
+                PageRequest.of(page, size));
+    }
+
+    /**
+     * Get visitors currently inside a location (ENTRY/EXIT balance computed in SQL)
+     */
+    public List<LocationOccupant> getLocationOccupants(String location) {
+        return accessLogRepository.findOccupantsByLocation(location);
     }
 
     /**
-     * Get access logs by location
+     * Get occupant count per location
      */
-    public List<AccessLog> getAccessLogsByLocation(String location) {
-        return accessLogRepository.findAll().stream()
-                .filter(log -> location.equals(log.getLocation()))
-                .toList();
+    public Map<String, Long> getOccupancyByLocation() {
+        return accessLogRepository.findAllOccupants().stream()
+                .collect(Collectors.groupingBy(LocationOccupant::getLocation, TreeMap::new, Collectors.counting()));
     }
 
     /**
@@ -119,35 +231,6 @@ public class AccessLogService {
         return accessLogRepository.findByUserIdOrderByTimestampDesc(userId);
     }
 
-    /**
-     * Get access log statistics for today
-     */
-    public Map<String, Object> getTodayStats() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-
-        Long checkIns = accessLogRepository.countTodayCheckIns(startOfDay);
-        Long checkOuts = accessLogRepository.countTodayCheckOuts(startOfDay);
-
-        // Get currently active visitors (checked in but not checked out)
-        List<WorkingPermit> activePermits = permitRepository
-                .findByStatusOrderByCreatedAtDesc(WorkingPermit.PermitStatus.ACTIVE);
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("todayCheckIns", checkIns != null ? checkIns : 0);
-        stats.put("todayCheckOuts", checkOuts != null ? checkOuts : 0);
-        stats.put("activeVisitors", activePermits.size());
-        stats.put("date", LocalDate.now().toString());
-
-        return stats;
-    }
-
-    /**
-     * Get checked-in visitors (currently active in data center)
-     */
-    public List<WorkingPermit> getCheckedInVisitors() {
-        return permitRepository.findByStatusOrderByCreatedAtDesc(WorkingPermit.PermitStatus.ACTIVE);
-    }
-
     /**
      * Get logs by access type
      */
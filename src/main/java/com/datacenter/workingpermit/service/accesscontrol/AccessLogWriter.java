@@ -0,0 +1,201 @@
+package com.datacenter.workingpermit.service.accesscontrol;
+
+import com.datacenter.workingpermit.model.AccessLog;
+import com.datacenter.workingpermit.repository.AccessLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Access Log Writer
+ * Write-behind pipeline for access events. Callers enqueue on a bounded
+ * in-memory queue and return immediately; a scheduled flusher persists the
+ * queue in JDBC batches. When the queue is full the caller waits briefly and
+ * then writes synchronously, so audit rows are never dropped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccessLogWriter {
+
+    private final AccessLogRepository accessLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.access-log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.access-log.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.access-log.offer-timeout:50}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<AccessLog> queue;
+    private TransactionTemplate synchronousTemplate;
+    private volatile boolean closed;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong synchronousWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        // submit runs from after-commit callbacks, where joining the finished transaction would lose the row
+        synchronousTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        synchronousTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        alignSequence();
+    }
+
+    /**
+     * Queue an access log for asynchronous insertion
+     */
+    public void submit(AccessLog accessLog) {
+        if (!closed) {
+            try {
+                if (queue.offer(accessLog)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+                // Queue full - apply backpressure before falling back
+                backpressureWaits.incrementAndGet();
+                if (queue.offer(accessLog, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronousWrites.incrementAndGet();
+        synchronousTemplate.executeWithoutResult(status -> accessLogRepository.save(accessLog));
+        written.incrementAndGet();
+    }
+
+    /**
+     * Queue several access logs for asynchronous insertion
+     */
+    public void submitAll(Collection<AccessLog> accessLogs) {
+        accessLogs.forEach(this::submit);
+    }
+
+    /**
+     * Persist everything currently queued, one JDBC batch per transaction
+     */
+    @Scheduled(fixedDelayString = "${app.access-log.flush-interval:200}")
+    public synchronized void flush() {
+        List<AccessLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Persist everything queued, then run the read before any later entry is
+     * flushed, so it sees exactly the logs queued before the call
+     */
+    public synchronized <T> T flushAndRead(Supplier<T> read) {
+        flush();
+        return read.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        flush();
+        log.info("Access log writer stopped: {} written, {} failed", written.get(), failedWrites.get());
+    }
+
+    /**
+     * Queue depth and throughput counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("remainingCapacity", queue.remainingCapacity());
+        stats.put("batchSize", batchSize);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("batches", batches.get());
+        stats.put("backpressureWaits", backpressureWaits.get());
+        stats.put("synchronousWrites", synchronousWrites.get());
+        stats.put("failedWrites", failedWrites.get());
+        return stats;
+    }
+
+    private void writeBatch(List<AccessLog> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> accessLogRepository.saveAll(batch));
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Batch insert of {} access logs failed, retrying individually: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::writeSingle);
+        }
+    }
+
+    private void writeSingle(AccessLog accessLog) {
+        try {
+            accessLog.setId(null);
+            transactionTemplate.executeWithoutResult(status -> accessLogRepository.save(accessLog));
+            written.incrementAndGet();
+        } catch (Exception e) {
+            failedWrites.incrementAndGet();
+            log.error("Dropping access log {} for permit {}: {}", accessLog.getAccessType(),
+                    accessLog.getWorkingPermit() != null ? accessLog.getWorkingPermit().getId() : null,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * access_logs used IDENTITY ids before the pooled sequence was introduced.
+     * Make sure the sequence starts above existing rows so the first batch
+     * cannot collide with them.
+     */
+    private void alignSequence() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM access_logs", Long.class);
+            String nextValSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getSequenceSupport()
+                    .getSequenceNextValString(AccessLog.ID_SEQUENCE);
+            Long nextVal = jdbcTemplate.queryForObject(nextValSql, Long.class);
+
+            if (maxId != null && nextVal != null && nextVal <= maxId + AccessLog.ID_ALLOCATION_SIZE) {
+                long restartWith = maxId + AccessLog.ID_ALLOCATION_SIZE + 1;
+                jdbcTemplate.execute("ALTER SEQUENCE " + AccessLog.ID_SEQUENCE + " RESTART WITH " + restartWith);
+                log.info("Access log id sequence moved to {} (max existing id {})", restartWith, maxId);
+            }
+        } catch (Exception e) {
+            log.warn("Could not align access log id sequence: {}", e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,10 @@
 package com.datacenter.workingpermit.service.accesscontrol;
 
 import com.datacenter.workingpermit.model.AccessLog;
-import com.datacenter.workingpermit.model.TempIdCard;
 import com.datacenter.workingpermit.model.WorkingPermit;
-import com.datacenter.workingpermit.repository.TempIdCardRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -16,30 +13,30 @@ import java.time.LocalDateTime;
 @Slf4j
 public class DoorAccessService {
 
-    private final TempIdCardRepository idCardRepository;
+    private final RfidCredentialCache credentialCache;
     private final AccessLogService accessLogService;
 
     /**
      * Verify RFID access for door entry/exit
+     * Decided from the credential cache; the access log is written asynchronously.
      */
-    @Transactional
     public boolean verifyRFIDAccess(String rfidTag, String location) {
         // Find active ID card by RFID
-        TempIdCard idCard = idCardRepository.findByRfidTagAndIsActive(rfidTag, true)
+        RfidCredentialCache.Credential credential = credentialCache.get(rfidTag)
+                .filter(RfidCredentialCache.Credential::isActive)
                 .orElse(null);
 
-        if (idCard == null) {
+        if (credential == null) {
             log.warn("Access denied - Invalid or inactive RFID: {}", rfidTag);
             return false;
         }
 
-        WorkingPermit permit = idCard.getWorkingPermit();
-
         // Check if permit is active
-        if (permit.getStatus() != WorkingPermit.PermitStatus.ACTIVE) {
-            log.warn("Access denied - Permit not active: {}", permit.getPermitNumber());
+        if (credential.getPermitStatus() != WorkingPermit.PermitStatus.ACTIVE) {
+            log.warn("Access denied - Permit not active: {}", credential.getPermitNumber());
             accessLogService.logAccess(
-                    permit,
+                    credential.getPermitId(),
+                    credential.getVisitorId(),
                     AccessLog.AccessType.DENIED,
                     location,
                     AccessLog.AccessStatus.UNAUTHORIZED,
@@ -48,10 +45,11 @@ public class DoorAccessService {
         }
 
         // Check if ID card is expired
-        if (LocalDateTime.now().isAfter(idCard.getExpiresAt())) {
-            log.warn("Access denied - ID card expired: {}", idCard.getCardNumber());
+        if (credential.isExpired(LocalDateTime.now())) {
+            log.warn("Access denied - ID card expired: {}", credential.getCardNumber());
             accessLogService.logAccess(
-                    permit,
+                    credential.getPermitId(),
+                    credential.getVisitorId(),
                     AccessLog.AccessType.DENIED,
                     location,
                     AccessLog.AccessStatus.UNAUTHORIZED,
@@ -61,7 +59,8 @@ public class DoorAccessService {
 
         // Grant access
         accessLogService.logAccess(
-                permit,
+                credential.getPermitId(),
+                credential.getVisitorId(),
                 AccessLog.AccessType.ENTRY,
                 location,
                 AccessLog.AccessStatus.SUCCESS,
@@ -73,20 +72,19 @@ public class DoorAccessService {
     /**
      * Record door access
      */
-    @Transactional
     public void recordDoorAccess(String rfidTag, String location, String accessType) {
         // Find ID card by RFID
-        TempIdCard idCard = idCardRepository.findByRfidTagAndIsActive(rfidTag, true)
+        RfidCredentialCache.Credential credential = credentialCache.get(rfidTag)
+                .filter(RfidCredentialCache.Credential::isActive)
                 .orElseThrow(() -> new RuntimeException("Invalid or inactive RFID tag"));
 
-        WorkingPermit permit = idCard.getWorkingPermit();
-
         AccessLog.AccessType type = "ENTRY".equals(accessType)
                 ? AccessLog.AccessType.ENTRY
                 : AccessLog.AccessType.EXIT;
 
         accessLogService.logAccess(
-                permit,
+                credential.getPermitId(),
+                credential.getVisitorId(),
                 type,
                 location,
                 AccessLog.AccessStatus.SUCCESS,
@@ -0,0 +1,349 @@
+package com.datacenter.workingpermit.service.accesscontrol;
+
+import com.datacenter.workingpermit.dto.LocationOccupant;
+import com.datacenter.workingpermit.event.AccessRecordedEvent;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.model.AccessLog;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.AccessLogRepository;
+import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy Service
+ * In-memory model of who is currently inside, per data center and per location.
+ * Updated incrementally from permit and access events and periodically
+ * reconciled against the database, so dashboard reads never query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OccupancyService {
+
+    private final WorkingPermitRepository permitRepository;
+    private final AccessLogRepository accessLogRepository;
+    private final AccessLogWriter accessLogWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    // Checked-in visitors by permit ID
+    private final Map<Long, CheckedInVisitor> checkedIn = new ConcurrentHashMap<>();
+    private final Map<WorkingPermit.DataCenter, Integer> countByDataCenter = new ConcurrentHashMap<>();
+    // Current location (zone) of each permit, and permits per location
+    private final Map<Long, String> locationByPermit = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> permitsByLocation = new ConcurrentHashMap<>();
+
+    private LocalDate counterDate = LocalDate.now();
+    private long todayCheckIns;
+    private long todayCheckOuts;
+
+    private TransactionTemplate readOnlyTemplate;
+    // Events seen while reconcile is reading, replayed onto the reloaded model; guarded by this
+    private List<Runnable> pendingEvents;
+
+    @PostConstruct
+    void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Rebuild the model from the database. Queued access logs are written
+     * first and none are written during the read, so events that arrive
+     * meanwhile are exactly the ones the read misses; they are replayed onto
+     * the reloaded model.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.occupancy.reconcile-interval:300000}",
+            initialDelayString = "${app.occupancy.reconcile-interval:300000}")
+    public void reconcile() {
+        try {
+            Snapshot snapshot = accessLogWriter.flushAndRead(() -> {
+                synchronized (this) {
+                    pendingEvents = new ArrayList<>();
+                }
+                return readOnlyTemplate.execute(status -> load());
+            });
+
+            synchronized (this) {
+                int drift = Math.abs(checkedIn.size() - snapshot.activePermits().size());
+
+                checkedIn.clear();
+                countByDataCenter.clear();
+                locationByPermit.clear();
+                permitsByLocation.clear();
+
+                snapshot.activePermits().forEach(permit -> addVisitor(CheckedInVisitor.from(permit)));
+                snapshot.occupants().stream()
+                        .filter(occupant -> checkedIn.containsKey(occupant.getPermitId()))
+                        .sorted(Comparator.comparing(LocationOccupant::getLastSeen))
+                        .forEach(occupant -> enter(occupant.getPermitId(), occupant.getLocation()));
+
+                counterDate = snapshot.date();
+                todayCheckIns = snapshot.checkIns();
+                todayCheckOuts = snapshot.checkOuts();
+
+                pendingEvents.forEach(Runnable::run);
+
+                log.info("Occupancy reconciled: {} visitors checked in, {} in tracked locations (drift {})",
+                        checkedIn.size(), locationByPermit.size(), drift);
+            }
+        } finally {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+        }
+    }
+
+    /**
+     * Track check-in and check-out through permit status changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onPermitChanged(PermitChangedEvent event) {
+        apply(() -> applyPermitChanged(event));
+    }
+
+    /**
+     * Track daily counters and zone movement through access events
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onAccessRecorded(AccessRecordedEvent event) {
+        if (event.getStatus() != AccessLog.AccessStatus.SUCCESS || event.getPermitId() == null) {
+            return;
+        }
+        apply(() -> applyAccessRecorded(event));
+    }
+
+    /**
+     * Today's access statistics
+     */
+    public synchronized Map<String, Object> getTodayStats() {
+        rollOverIfNewDay();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("todayCheckIns", todayCheckIns);
+        stats.put("todayCheckOuts", todayCheckOuts);
+        stats.put("activeVisitors", checkedIn.size());
+        stats.put("date", counterDate.toString());
+        stats.put("byDataCenter", getOccupancyByDataCenter());
+        stats.put("byLocation", getOccupancyByLocation());
+        return stats;
+    }
+
+    /**
+     * Visitors currently checked in, most recent first
+     */
+    public List<CheckedInVisitor> getCheckedInVisitors() {
+        return checkedIn.values().stream()
+                .sorted(Comparator.comparing(CheckedInVisitor::getCheckInTime,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+    }
+
+    /**
+     * Number of visitors currently checked in
+     */
+    public int getActiveVisitorCount() {
+        return checkedIn.size();
+    }
+
+    /**
+     * Current visitor count per data center
+     */
+    public Map<String, Integer> getOccupancyByDataCenter() {
+        Map<WorkingPermit.DataCenter, Integer> counts = new EnumMap<>(WorkingPermit.DataCenter.class);
+        for (WorkingPermit.DataCenter dataCenter : WorkingPermit.DataCenter.values()) {
+            counts.put(dataCenter, countByDataCenter.getOrDefault(dataCenter, 0));
+        }
+        Map<String, Integer> result = new TreeMap<>();
+        counts.forEach((dataCenter, count) -> result.put(dataCenter.name(), count));
+        return result;
+    }
+
+    /**
+     * Current visitor count per location
+     */
+    public Map<String, Integer> getOccupancyByLocation() {
+        Map<String, Integer> result = new TreeMap<>();
+        permitsByLocation.forEach((location, permits) -> result.put(location, permits.size()));
+        return result;
+    }
+
+    /**
+     * Number of visitors currently at a location
+     */
+    public int getLocationCount(String location) {
+        Set<Long> permits = permitsByLocation.get(location);
+        return permits != null ? permits.size() : 0;
+    }
+
+    /**
+     * Current location of a permit holder, if tracked
+     */
+    public String getLocationOf(Long permitId) {
+        return locationByPermit.get(permitId);
+    }
+
+    /**
+     * Checked-in visitor for a permit, if any
+     */
+    public CheckedInVisitor getCheckedInVisitor(Long permitId) {
+        return checkedIn.get(permitId);
+    }
+
+    private void apply(Runnable change) {
+        change.run();
+        if (pendingEvents != null) {
+            pendingEvents.add(change);
+        }
+    }
+
+    private Snapshot load() {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        List<PermitChangedEvent> activePermits = permitRepository
+                .findByStatusWithDetails(WorkingPermit.PermitStatus.ACTIVE).stream()
+                .map(PermitChangedEvent::from)
+                .toList();
+        List<LocationOccupant> occupants = accessLogRepository.findAllOccupants();
+        Long checkIns = accessLogRepository.countTodayCheckIns(startOfDay);
+        Long checkOuts = accessLogRepository.countTodayCheckOuts(startOfDay);
+
+        return new Snapshot(startOfDay.toLocalDate(), activePermits, occupants,
+                checkIns != null ? checkIns : 0, checkOuts != null ? checkOuts : 0);
+    }
+
+    private void applyPermitChanged(PermitChangedEvent event) {
+        if (event.getStatus() == WorkingPermit.PermitStatus.ACTIVE) {
+            removeVisitor(event.getPermitId());
+            addVisitor(CheckedInVisitor.from(event));
+        } else {
+            removeVisitor(event.getPermitId());
+        }
+    }
+
+    private void applyAccessRecorded(AccessRecordedEvent event) {
+        rollOverIfNewDay();
+        switch (event.getAccessType()) {
+            case CHECK_IN -> todayCheckIns++;
+            case CHECK_OUT -> todayCheckOuts++;
+            case ENTRY -> {
+                if (checkedIn.containsKey(event.getPermitId())) {
+                    enter(event.getPermitId(), event.getLocation());
+                }
+            }
+            case EXIT -> exit(event.getPermitId(), event.getLocation());
+            default -> {
+            }
+        }
+    }
+
+    private void addVisitor(CheckedInVisitor visitor) {
+        checkedIn.put(visitor.getPermitId(), visitor);
+        if (visitor.getDataCenter() != null) {
+            countByDataCenter.merge(visitor.getDataCenter(), 1, Integer::sum);
+        }
+    }
+
+    private void removeVisitor(Long permitId) {
+        CheckedInVisitor removed = checkedIn.remove(permitId);
+        if (removed != null && removed.getDataCenter() != null) {
+            countByDataCenter.computeIfPresent(removed.getDataCenter(), (dc, count) -> count > 1 ? count - 1 : null);
+        }
+        String location = locationByPermit.get(permitId);
+        if (location != null) {
+            exit(permitId, location);
+        }
+    }
+
+    private void enter(Long permitId, String location) {
+        String previous = locationByPermit.put(permitId, location);
+        if (previous != null && !previous.equals(location)) {
+            leaveLocation(permitId, previous);
+        }
+        permitsByLocation.computeIfAbsent(location, key -> ConcurrentHashMap.newKeySet()).add(permitId);
+    }
+
+    private void exit(Long permitId, String location) {
+        if (locationByPermit.remove(permitId, location)) {
+            leaveLocation(permitId, location);
+        }
+    }
+
+    private void leaveLocation(Long permitId, String location) {
+        permitsByLocation.computeIfPresent(location, (key, permits) -> {
+            permits.remove(permitId);
+            return permits.isEmpty() ? null : permits;
+        });
+    }
+
+    private void rollOverIfNewDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(counterDate)) {
+            counterDate = today;
+            todayCheckIns = 0;
+            todayCheckOuts = 0;
+        }
+    }
+
+    private record Snapshot(LocalDate date, List<PermitChangedEvent> activePermits,
+                            List<LocationOccupant> occupants, long checkIns, long checkOuts) {
+    }
+
+    /**
+     * Snapshot of a checked-in visitor as shown on the security dashboard
+     */
+    @Value
+    @Builder
+    public static class CheckedInVisitor {
+        Long permitId;
+        String permitNumber;
+        Long visitorId;
+        String visitorName;
+        String visitorEmail;
+        String company;
+        WorkingPermit.DataCenter dataCenter;
+        LocalDateTime checkInTime;
+        LocalDateTime scheduledEndTime;
+        String purpose;
+
+        static CheckedInVisitor from(PermitChangedEvent event) {
+            return CheckedInVisitor.builder()
+                    .permitId(event.getPermitId())
+                    .permitNumber(event.getPermitNumber())
+                    .visitorId(event.getVisitorId())
+                    .visitorName(event.getVisitorName() != null ? event.getVisitorName() : "Unknown")
+                    .visitorEmail(event.getVisitorEmail())
+                    .company(event.getCompany())
+                    .dataCenter(event.getDataCenter())
+                    .checkInTime(event.getActualCheckInTime())
+                    .scheduledEndTime(event.getScheduledEndTime())
+                    .purpose(event.getVisitPurpose())
+                    .build();
+        }
+    }
+}
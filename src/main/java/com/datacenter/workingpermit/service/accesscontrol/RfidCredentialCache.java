@@ -0,0 +1,217 @@
+package com.datacenter.workingpermit.service.accesscontrol;
+
+import com.datacenter.workingpermit.event.IdCardChangedEvent;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.model.TempIdCard;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.TempIdCardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * RFID Credential Cache
+ * In-memory view of every issued ID card keyed by RFID tag, so door readers
+ * can allow or deny a swipe without a database round trip. Loaded at startup
+ * and kept current by ID card and permit change events.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RfidCredentialCache {
+
+    private static final long UNKNOWN_TAG_TTL_MS = 30_000;
+    private static final int MAX_UNKNOWN_TAGS = 10_000;
+
+    private final TempIdCardRepository idCardRepository;
+
+    // Replaced as a whole by rebuild; guarded by this for event writers, read lock-free
+    private volatile Credentials credentials = new Credentials();
+    // Changes seen while a rebuild is loading, replayed onto the new maps; guarded by this
+    private List<Consumer<Credentials>> pendingChanges;
+    // Tags confirmed absent from the database, with the time the entry expires
+    private final Map<String, Long> unknownTags = new ConcurrentHashMap<>();
+
+    /**
+     * Load all active cards once the application is up. The new maps are built
+     * aside and swapped in, so swipes never see them half-filled and card
+     * events committed during the load are not lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            List<TempIdCard> cards = idCardRepository.findActiveWithPermit();
+            Credentials rebuilt = new Credentials();
+            cards.forEach(card -> rebuilt.put(Credential.from(card)));
+
+            synchronized (this) {
+                // Changes committed while loading are at least as new as what was read
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                credentials = rebuilt;
+                unknownTags.clear();
+            }
+            log.info("RFID credential cache loaded with {} active cards", rebuilt.byTag.size());
+        } finally {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Resolve an RFID tag, falling back to the database only for tags never seen before
+     */
+    public Optional<Credential> get(String rfidTag) {
+        if (rfidTag == null || rfidTag.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Credential credential = credentials.byTag.get(rfidTag);
+        if (credential != null) {
+            return Optional.of(credential);
+        }
+
+        Long unknownUntil = unknownTags.get(rfidTag);
+        if (unknownUntil != null && unknownUntil > System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+
+        return load(rfidTag);
+    }
+
+    /**
+     * Apply committed card issue/deactivation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onIdCardChanged(IdCardChangedEvent event) {
+        Credential credential = Credential.from(event);
+        unknownTags.remove(credential.getRfidTag());
+        apply(current -> current.put(credential));
+        log.debug("RFID credential updated: tag={}, active={}", event.getRfidTag(), event.isActive());
+    }
+
+    /**
+     * Apply committed permit status changes to the permit's card
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPermitChanged(PermitChangedEvent event) {
+        apply(current -> current.updatePermitStatus(event));
+    }
+
+    /**
+     * Number of cached credentials
+     */
+    public int size() {
+        return credentials.byTag.size();
+    }
+
+    private void apply(Consumer<Credentials> change) {
+        change.accept(credentials);
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    private Optional<Credential> load(String rfidTag) {
+        Optional<Credential> loaded = idCardRepository.findByRfidTagWithPermit(rfidTag).map(Credential::from);
+
+        if (loaded.isPresent()) {
+            // An event may have raced the load; keep whichever arrived first
+            Credentials current = credentials;
+            return Optional.of(current.byTag.computeIfAbsent(rfidTag, tag -> {
+                current.tagByPermitId.put(loaded.get().getPermitId(), tag);
+                return loaded.get();
+            }));
+        }
+
+        if (unknownTags.size() >= MAX_UNKNOWN_TAGS) {
+            unknownTags.clear();
+        }
+        unknownTags.put(rfidTag, System.currentTimeMillis() + UNKNOWN_TAG_TTL_MS);
+        return Optional.empty();
+    }
+
+    /**
+     * Credentials by RFID tag, and the current card tag of each permit
+     */
+    private static final class Credentials {
+        private final Map<String, Credential> byTag = new ConcurrentHashMap<>();
+        private final Map<Long, String> tagByPermitId = new ConcurrentHashMap<>();
+
+        private void put(Credential credential) {
+            byTag.put(credential.getRfidTag(), credential);
+
+            String previous = tagByPermitId.put(credential.getPermitId(), credential.getRfidTag());
+            if (previous != null && !previous.equals(credential.getRfidTag()) && !credential.isActive()) {
+                // A deactivated old card must not replace the permit's current card
+                tagByPermitId.put(credential.getPermitId(), previous);
+            }
+        }
+
+        private void updatePermitStatus(PermitChangedEvent event) {
+            String rfidTag = tagByPermitId.get(event.getPermitId());
+            if (rfidTag != null) {
+                byTag.computeIfPresent(rfidTag, (tag, credential) -> credential.getPermitId()
+                        .equals(event.getPermitId()) ? credential.withPermitStatus(event.getStatus()) : credential);
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of what a door reader needs to decide on a swipe
+     */
+    @Value
+    @With
+    public static class Credential {
+        Long cardId;
+        String cardNumber;
+        String rfidTag;
+        LocalDateTime expiresAt;
+        boolean active;
+        Long permitId;
+        String permitNumber;
+        WorkingPermit.PermitStatus permitStatus;
+        WorkingPermit.DataCenter dataCenter;
+        Long visitorId;
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && now.isAfter(expiresAt);
+        }
+
+        static Credential from(TempIdCard card) {
+            return from(IdCardChangedEvent.from(card, card.getWorkingPermit()));
+        }
+
+        static Credential from(IdCardChangedEvent event) {
+            return new Credential(
+                    event.getCardId(),
+                    event.getCardNumber(),
+                    event.getRfidTag(),
+                    event.getExpiresAt(),
+                    event.isActive(),
+                    event.getPermitId(),
+                    event.getPermitNumber(),
+                    event.getPermitStatus(),
+                    event.getDataCenter(),
+                    event.getVisitorId());
+        }
+    }
+}
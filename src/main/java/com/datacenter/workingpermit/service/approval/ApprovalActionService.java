@@ -1,34 +1,49 @@
 package com.datacenter.workingpermit.service.approval;
 
 import com.datacenter.workingpermit.dto.ApprovalRequest;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.event.PermitsApprovedEvent;
 import com.datacenter.workingpermit.model.Approval;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.ApprovalRepository;
 import com.datacenter.workingpermit.repository.UserRepository;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import com.datacenter.workingpermit.service.OTPService;
+import com.datacenter.workingpermit.service.QRCodeService;
 import com.datacenter.workingpermit.service.notification.NotificationEventService;
 import com.datacenter.workingpermit.service.permit.PermitActionService;
 import com.google.zxing.WriterException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ApprovalActionService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ApprovalRepository approvalRepository;
     private final WorkingPermitRepository permitRepository;
     private final UserRepository userRepository;
     private final PermitActionService permitActionService;
     private final NotificationEventService notificationService;
+    private final OTPService otpService;
+    private final QRCodeService qrCodeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * PIC Review - First level approval
@@ -134,4 +149,82 @@ public class ApprovalActionService {
             notificationService.notifyPermitRejected(permit, request.getComments());
         }
     }
+
+    /**
+     * Manager Approval - approve many permits in one transaction.
+     * Permits and approvals are loaded with one query and flushed in JDBC batches;
+     * QR rendering, notifications and scanner sync run after commit.
+     */
+    @Transactional
+    public Map<String, Object> managerApproveBatch(List<Long> permitIds, User manager, String comments) {
+        if (permitIds == null || permitIds.isEmpty())
+            throw new IllegalArgumentException("Permit IDs cannot be empty");
+        Set<Long> uniqueIds = new LinkedHashSet<>(permitIds);
+        if (uniqueIds.size() > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Batch size cannot exceed " + MAX_BATCH_SIZE);
+
+        List<Approval> approvals = approvalRepository.findByPermitIdsAndLevelWithPermit(
+                uniqueIds, Approval.ApprovalLevel.MANAGER_APPROVAL);
+
+        Map<Long, Approval> approvalByPermitId = new HashMap<>();
+        approvals.forEach(approval -> approvalByPermitId.put(approval.getWorkingPermit().getId(), approval));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> approvedIds = new ArrayList<>();
+        List<WorkingPermit> approvedPermits = new ArrayList<>();
+        List<Approval> approvedApprovals = new ArrayList<>();
+        List<Map<String, Object>> skipped = new ArrayList<>();
+
+        for (Long permitId : uniqueIds) {
+            Approval approval = approvalByPermitId.get(permitId);
+            if (approval == null) {
+                skipped.add(skippedEntry(permitId, "Permit or approval record not found"));
+                continue;
+            }
+            WorkingPermit permit = approval.getWorkingPermit();
+            if (permit.getStatus() != WorkingPermit.PermitStatus.PENDING_MANAGER) {
+                skipped.add(skippedEntry(permitId, "Permit is not pending manager approval"));
+                continue;
+            }
+
+            approval.setStatus(Approval.ApprovalStatus.APPROVED);
+            approval.setReviewedAt(now);
+            approval.setComments(comments);
+
+            // Same OTP/QR data as PermitActionService.approvePermit; the image is rendered after commit
+            String otp = otpService.generateAndStoreOTP(permitId);
+            permit.setOtpCode(otp);
+            permit.setOtpExpiryTime(otpService.getOTPExpiryTime(permitId));
+            permit.setQrCodeData(qrCodeService.generateQRCodeDataWithOTP(permit.getPermitNumber(), otp));
+            permit.setQrCodeImagePath(qrCodeService.getPermitQRCodeImagePath(permitId));
+            permit.setStatus(WorkingPermit.PermitStatus.APPROVED);
+
+            approvedIds.add(permitId);
+            approvedPermits.add(permit);
+            approvedApprovals.add(approval);
+        }
+
+        approvalRepository.saveAll(approvedApprovals);
+        permitRepository.saveAll(approvedPermits);
+
+        approvedPermits.forEach(permit -> eventPublisher.publishEvent(PermitChangedEvent.from(permit)));
+        if (!approvedIds.isEmpty()) {
+            eventPublisher.publishEvent(new PermitsApprovedEvent(approvedIds));
+        }
+
+        log.info("Manager {} batch-approved {} permits ({} skipped)",
+                manager.getId(), approvedIds.size(), skipped.size());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("approved", approvedIds);
+        result.put("skipped", skipped);
+        return result;
+    }
+
+    private static Map<String, Object> skippedEntry(Long permitId, String reason) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("permitId", permitId);
+        entry.put("reason", reason);
+        return entry;
+    }
 }
@@ -0,0 +1,266 @@
+package com.datacenter.workingpermit.service.notification;
+
+import com.datacenter.workingpermit.event.NotificationQueuedEvent;
+import com.datacenter.workingpermit.model.Notification;
+import com.datacenter.workingpermit.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification Dispatcher
+ * Delivers outbox rows written by NotificationSenderService. Due rows are
+ * claimed in batches with SELECT ... FOR UPDATE SKIP LOCKED and leased by
+ * pushing nextAttemptAt forward, then handed to the channels by a bounded
+ * worker pool outside any transaction; email completes asynchronously once
+ * SmtpMailTransport has sent the batch carrying it. Failures are retried
+ * with exponential backoff and jitter until max attempts, after which the
+ * row is marked FAILED.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationSenderService notificationSenderService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notification.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.notification.outbox.workers:4}")
+    private int workerCount;
+
+    @Value("${app.notification.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notification.outbox.initial-backoff:30000}")
+    private long initialBackoffMs;
+
+    @Value("${app.notification.outbox.max-backoff:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.notification.outbox.lease:300000}")
+    private long leaseMs;
+
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        coordinator = Executors.newSingleThreadExecutor(namedThreads("notification-dispatch"));
+        workers = Executors.newFixedThreadPool(Math.max(1, workerCount), namedThreads("notification-worker"));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        coordinator.shutdown();
+        coordinator.awaitTermination(10, TimeUnit.SECONDS);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Pick up new notifications as soon as their transaction commits
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationQueued(NotificationQueuedEvent event) {
+        trigger();
+    }
+
+    /**
+     * Catch retries that became due and rows queued before a restart
+     */
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval:5000}")
+    public void poll() {
+        trigger();
+    }
+
+    /**
+     * Outbox counters and backlog by status
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("claimed", claimed.get());
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        stats.put("pending", notificationRepository.countByStatus(Notification.DeliveryStatus.PENDING));
+        stats.put("failedTotal", notificationRepository.countByStatus(Notification.DeliveryStatus.FAILED));
+        return stats;
+    }
+
+    // Coalesce triggers: at most one drain queued behind the running one
+    private void trigger() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                coordinator.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            List<Delivery> batch;
+            do {
+                batch = claimBatch();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                CompletableFuture.allOf(batch.stream()
+                        .map(this::deliver)
+                        .toArray(CompletableFuture[]::new))
+                        .join();
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Notification dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Delivery> claimBatch() {
+        List<Delivery> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Notification> due = notificationRepository.findDueForDispatch(now, PageRequest.of(0, batchSize));
+            // Lease the rows; if this node dies they become due again when the lease runs out
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+            return due.stream().map(notification -> {
+                int attempt = (notification.getAttempts() != null ? notification.getAttempts() : 0) + 1;
+                notification.setAttempts(attempt);
+                notification.setLastAttemptAt(now);
+                notification.setNextAttemptAt(leaseUntil);
+                return Delivery.from(notification, attempt);
+            }).toList();
+        });
+        claimed.addAndGet(batch != null ? batch.size() : 0);
+        return batch != null ? batch : List.of();
+    }
+
+    // Hand off on a worker; the mail transport completes the future when its batch is sent
+    private CompletableFuture<Void> deliver(Delivery delivery) {
+        return CompletableFuture
+                .supplyAsync(() -> notificationSenderService.deliver(delivery.getChannel(), delivery.getEmail(),
+                        delivery.getPhoneNumber(), delivery.getSubject(), delivery.getMessage(),
+                        delivery.getAttachmentPath()), workers)
+                .thenCompose(sending -> sending)
+                .handle((ignored, error) -> {
+                    recordOutcome(delivery, error);
+                    return null;
+                });
+    }
+
+    private void recordOutcome(Delivery delivery, Throwable failure) {
+        if (failure == null) {
+            updateState(delivery.getId(), Notification.DeliveryStatus.SENT, LocalDateTime.now(), null, null);
+            sent.incrementAndGet();
+            return;
+        }
+
+        String error = describe(failure);
+        if (delivery.getAttempt() >= maxAttempts) {
+            updateState(delivery.getId(), Notification.DeliveryStatus.FAILED, null, null, error);
+            failed.incrementAndGet();
+            log.error("Notification {} failed after {} attempts: {}",
+                    delivery.getId(), delivery.getAttempt(), error);
+        } else {
+            long backoff = backoffMs(delivery.getAttempt());
+            updateState(delivery.getId(), Notification.DeliveryStatus.PENDING, null,
+                    LocalDateTime.now().plusNanos(backoff * 1_000_000), error);
+            retried.incrementAndGet();
+            log.warn("Notification {} attempt {} failed, retrying in {} ms: {}",
+                    delivery.getId(), delivery.getAttempt(), backoff, error);
+        }
+    }
+
+    private void updateState(Long id, Notification.DeliveryStatus status, LocalDateTime sentAt,
+            LocalDateTime nextAttemptAt, String error) {
+        transactionTemplate.executeWithoutResult(tx -> notificationRepository.updateDeliveryState(
+                id, status, sentAt, nextAttemptAt, error));
+    }
+
+    // initial * 2^(attempt-1), capped, with +/-20% jitter so retries do not synchronize
+    private long backoffMs(int attempt) {
+        long backoff = initialBackoffMs << Math.min(attempt - 1, 20);
+        backoff = Math.min(backoff, maxBackoffMs);
+        long jitter = backoff / 5;
+        return backoff + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+    }
+
+    private static String describe(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Everything a worker needs to send, read while the row is locked
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class Delivery {
+        private final Long id;
+        private final int attempt;
+        private final Notification.DeliveryChannel channel;
+        private final String email;
+        private final String phoneNumber;
+        private final String subject;
+        private final String message;
+        private final String attachmentPath;
+
+        static Delivery from(Notification notification, int attempt) {
+            return new Delivery(
+                    notification.getId(),
+                    attempt,
+                    notification.getChannel(),
+                    notification.getRecipient().getEmail(),
+                    notification.getRecipient().getPhoneNumber(),
+                    notification.getSubject(),
+                    notification.getMessage(),
+                    notification.getAttachmentPath());
+        }
+    }
+}
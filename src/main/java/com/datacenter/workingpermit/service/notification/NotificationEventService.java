@@ -3,6 +3,7 @@ package com.datacenter.workingpermit.service.notification;
 import com.datacenter.workingpermit.model.Notification;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.service.template.MailTemplateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,22 +16,18 @@ import java.time.LocalDateTime;
 public class NotificationEventService {
 
         private final NotificationSenderService notificationSenderService;
+        private final MailTemplateService mailTemplateService;
 
         /**
          * Send permit submitted notification
          */
         public void notifyPermitSubmitted(WorkingPermit permit) {
                 String subject = "New Working Permit Request";
-                String message = String.format(
-                                "A new working permit request has been submitted by %s.\n" +
-                                                "Permit Number: %s\n" +
-                                                "Visit Purpose: %s\n" +
-                                                "Scheduled: %s\n" +
-                                                "Please review the request.",
-                                permit.getVisitor().getFullName(),
-                                permit.getPermitNumber(),
-                                permit.getVisitPurpose(),
-                                permit.getScheduledStartTime());
+                String message = mailTemplateService.render("permit-submitted.txt", MailTemplateService.values(
+                                "visitorName", permit.getVisitor().getFullName(),
+                                "permitNumber", permit.getPermitNumber(),
+                                "visitPurpose", permit.getVisitPurpose(),
+                                "scheduledStart", permit.getScheduledStartTime()));
 
                 notificationSenderService.sendNotification(
                                 permit.getPic(),
@@ -46,19 +43,12 @@ public class NotificationEventService {
          */
         public void notifyPermitApproved(WorkingPermit permit, String qrCode, String otp) {
                 String subject = "Working Permit Approved";
-                String message = String.format(
-                                "Your working permit has been approved!\n\n" +
-                                                "Permit Number: %s\n" +
-                                                "Data Center: %s\n" +
-                                                "Scheduled: %s to %s\n\n" +
-                                                "Your OTP Code: %s\n" +
-                                                "Valid for 5 minutes\n\n" +
-                                                "Please bring your QR code and OTP when you arrive at the data center.",
-                                permit.getPermitNumber(),
-                                permit.getDataCenter().getDisplayName(),
-                                permit.getScheduledStartTime(),
-                                permit.getScheduledEndTime(),
-                                otp);
+                String message = mailTemplateService.render("permit-approved.txt", MailTemplateService.values(
+                                "permitNumber", permit.getPermitNumber(),
+                                "dataCenter", permit.getDataCenter().getDisplayName(),
+                                "scheduledStart", permit.getScheduledStartTime(),
+                                "scheduledEnd", permit.getScheduledEndTime(),
+                                "otpCode", otp));
 
                 notificationSenderService.sendNotification(
                                 permit.getVisitor(),
@@ -75,13 +65,9 @@ public class NotificationEventService {
          */
         public void notifyPermitRejected(WorkingPermit permit, String reason) {
                 String subject = "Working Permit Rejected";
-                String message = String.format(
-                                "Your working permit request has been rejected.\n\n" +
-                                                "Permit Number: %s\n" +
-                                                "Reason: %s\n\n" +
-                                                "Please contact your PIC for more information.",
-                                permit.getPermitNumber(),
-                                reason);
+                String message = mailTemplateService.render("permit-rejected.txt", MailTemplateService.values(
+                                "permitNumber", permit.getPermitNumber(),
+                                "reason", reason));
 
                 notificationSenderService.sendNotification(
                                 permit.getVisitor(),
@@ -97,19 +83,12 @@ public class NotificationEventService {
          */
         public void notifyApprovalRequired(WorkingPermit permit, User approver) {
                 String subject = "Working Permit Approval Required";
-                String message = String.format(
-                                "A working permit requires your approval.\n\n" +
-                                                "Permit Number: %s\n" +
-                                                "Visitor: %s\n" +
-                                                "Company: %s\n" +
-                                                "Visit Purpose: %s\n" +
-                                                "Scheduled: %s\n\n" +
-                                                "Please review and approve/reject the request.",
-                                permit.getPermitNumber(),
-                                permit.getVisitor().getFullName(),
-                                permit.getVisitor().getCompany(),
-                                permit.getVisitPurpose(),
-                                permit.getScheduledStartTime());
+                String message = mailTemplateService.render("approval-required.txt", MailTemplateService.values(
+                                "permitNumber", permit.getPermitNumber(),
+                                "visitorName", permit.getVisitor().getFullName(),
+                                "company", permit.getVisitor().getCompany(),
+                                "visitPurpose", permit.getVisitPurpose(),
+                                "scheduledStart", permit.getScheduledStartTime()));
 
                 notificationSenderService.sendNotification(
                                 approver,
@@ -125,14 +104,10 @@ public class NotificationEventService {
          */
         public void notifyCheckInSuccess(WorkingPermit permit) {
                 String subject = "Visitor Checked In";
-                String message = String.format(
-                                "Visitor has successfully checked in.\n\n" +
-                                                "Visitor: %s\n" +
-                                                "Permit Number: %s\n" +
-                                                "Check-in Time: %s",
-                                permit.getVisitor().getFullName(),
-                                permit.getPermitNumber(),
-                                LocalDateTime.now());
+                String message = mailTemplateService.render("check-in-success.txt", MailTemplateService.values(
+                                "visitorName", permit.getVisitor().getFullName(),
+                                "permitNumber", permit.getPermitNumber(),
+                                "checkInTime", LocalDateTime.now()));
 
                 // Notify PIC
                 notificationSenderService.sendNotification(
@@ -149,16 +124,11 @@ public class NotificationEventService {
          */
         public void notifyCheckOutSuccess(WorkingPermit permit) {
                 String subject = "Visit Completed";
-                String message = String.format(
-                                "Visit has been completed.\n\n" +
-                                                "Visitor: %s\n" +
-                                                "Permit Number: %s\n" +
-                                                "Check-in: %s\n" +
-                                                "Check-out: %s",
-                                permit.getVisitor().getFullName(),
-                                permit.getPermitNumber(),
-                                permit.getActualCheckInTime(),
-                                permit.getActualCheckOutTime());
+                String message = mailTemplateService.render("check-out-success.txt", MailTemplateService.values(
+                                "visitorName", permit.getVisitor().getFullName(),
+                                "permitNumber", permit.getPermitNumber(),
+                                "checkInTime", permit.getActualCheckInTime(),
+                                "checkOutTime", permit.getActualCheckOutTime()));
 
                 // Notify visitor and PIC
                 notificationSenderService.sendNotification(
@@ -1,18 +1,20 @@
 package com.datacenter.workingpermit.service.notification;
 
+import com.datacenter.workingpermit.event.NotificationQueuedEvent;
 import com.datacenter.workingpermit.model.Notification;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.NotificationRepository;
+import com.datacenter.workingpermit.service.SmtpMailTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -20,20 +22,16 @@ import java.time.LocalDateTime;
 public class NotificationSenderService {
 
     private final NotificationRepository notificationRepository;
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username:noreply@datacenter.com}")
-    private String fromEmail;
+    private final SmtpMailTransport mailTransport;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.sms.enabled:false}")
     private boolean smsEnabled;
 
     /**
-     * Send notification
+     * Queue notification
      */
-    @org.springframework.scheduling.annotation.Async
     @Transactional
-
     public void sendNotification(
             User recipient,
             WorkingPermit permit,
@@ -45,11 +43,11 @@ public class NotificationSenderService {
     }
 
     /**
-     * Send notification with attachment
+     * Queue notification with attachment.
+     * Writes an outbox row in the caller's transaction; NotificationDispatcher
+     * delivers it after commit, so SMTP latency never holds up the caller.
      */
-    @org.springframework.scheduling.annotation.Async
     @Transactional
-
     public void sendNotification(
             User recipient,
             WorkingPermit permit,
@@ -59,7 +57,10 @@ public class NotificationSenderService {
             Notification.DeliveryChannel channel,
             String attachmentPath) {
 
-        // Create notification record
+        boolean inAppOnly = channel == Notification.DeliveryChannel.IN_APP;
+        LocalDateTime now = LocalDateTime.now();
+
+        // In-app notifications are delivered by being saved
         Notification notification = Notification.builder()
                 .recipient(recipient)
                 .workingPermit(permit)
@@ -67,68 +68,44 @@ public class NotificationSenderService {
                 .subject(subject)
                 .message(message)
                 .channel(channel)
-                .status(Notification.DeliveryStatus.PENDING)
+                .attachmentPath(attachmentPath)
+                .status(inAppOnly ? Notification.DeliveryStatus.SENT : Notification.DeliveryStatus.PENDING)
+                .sentAt(inAppOnly ? now : null)
+                .nextAttemptAt(inAppOnly ? null : now)
                 .build();
 
         notificationRepository.save(notification);
 
-        // Send via appropriate channel
-        try {
-            switch (channel) {
-                case EMAIL:
-                    sendEmail(recipient.getEmail(), subject, message, attachmentPath);
-                    break;
-                case SMS:
-                    sendSMS(recipient.getPhoneNumber(), message);
-                    break;
-                case ALL:
-                    sendEmail(recipient.getEmail(), subject, message, attachmentPath);
-                    sendSMS(recipient.getPhoneNumber(), message);
-                    break;
-                case IN_APP:
-                    // In-app notification already saved in database
-                    break;
-            }
-
-            notification.setStatus(Notification.DeliveryStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-            notificationRepository.save(notification);
-
-        } catch (Exception e) {
-            log.error("Failed to send notification: {}", e.getMessage());
-            notification.setStatus(Notification.DeliveryStatus.FAILED);
-            notificationRepository.save(notification);
+        if (!inAppOnly) {
+            eventPublisher.publishEvent(new NotificationQueuedEvent(notification.getId()));
         }
     }
 
     /**
-     * Send email
+     * Deliver a claimed notification over its channel.
+     * SMS goes out immediately; email is handed to the SMTP transport, and the
+     * returned future completes once the batch carrying it has been sent.
      */
-    private void sendEmail(String to, String subject, String message, String attachmentPath) {
-        try {
-            jakarta.mail.internet.MimeMessage mimeMessage = mailSender.createMimeMessage();
-            org.springframework.mail.javamail.MimeMessageHelper helper = new org.springframework.mail.javamail.MimeMessageHelper(
-                    mimeMessage, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(message);
-
-            if (attachmentPath != null && !attachmentPath.isEmpty()) {
-                java.io.File file = new java.io.File(attachmentPath);
-                if (file.exists()) {
-                    helper.addAttachment(file.getName(), file);
-                } else {
-                    log.warn("Attachment file not found: {}", attachmentPath);
-                }
-            }
-
-            mailSender.send(mimeMessage);
-            log.info("Email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email", e);
+    public CompletableFuture<Void> deliver(
+            Notification.DeliveryChannel channel,
+            String email,
+            String phoneNumber,
+            String subject,
+            String message,
+            String attachmentPath) {
+        switch (channel) {
+            case EMAIL:
+                return mailTransport.sendText(email, subject, message, attachmentPath);
+            case SMS:
+                sendSMS(phoneNumber, message);
+                return CompletableFuture.completedFuture(null);
+            case ALL:
+                sendSMS(phoneNumber, message);
+                return mailTransport.sendText(email, subject, message, attachmentPath);
+            case IN_APP:
+            default:
+                // In-app notification already saved in database
+                return CompletableFuture.completedFuture(null);
         }
     }
 
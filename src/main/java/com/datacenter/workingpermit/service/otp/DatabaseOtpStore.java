@@ -0,0 +1,222 @@
+package com.datacenter.workingpermit.service.otp;
+
+import com.datacenter.workingpermit.model.OtpCode;
+import com.datacenter.workingpermit.repository.OtpCodeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database OTP Store
+ * Keeps OTPs in the narrow otp_codes table so any node can verify a code
+ * issued by another and codes survive a restart. Verification is one indexed
+ * DELETE that only succeeds for the first caller, so a code is consumed
+ * exactly once across the cluster; it joins the caller's transaction and is
+ * undone if that rolls back. A unique index on code keeps outstanding
+ * codes unique between nodes.
+ *
+ * Expiry and code lookups are served from a small near-cache for a short TTL;
+ * verification always goes to the table. Storing, consuming or removing a
+ * permit's OTP on this node evicts both its permit and code entries; changes
+ * made by other nodes show up here within the TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "database")
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseOtpStore implements OtpStore {
+
+    private final OtpCodeRepository otpCodeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.otp.near-cache.ttl:2000}")
+    private long nearCacheTtlMs;
+
+    @Value("${app.otp.near-cache.max-size:10000}")
+    private int nearCacheMaxSize;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Cached> nearCache = new LinkedHashMap<>(256, 0.75f, true);
+    // Entries of nearCache that hold a code, by code; guarded by nearCache
+    private final Map<String, Cached> byCode = new HashMap<>();
+
+    private TransactionTemplate insertTemplate;
+    private TransactionTemplate writeTemplate;
+
+    @PostConstruct
+    void init() {
+        // A code clash must only roll back the insert, never the caller's transaction
+        insertTemplate = new TransactionTemplate(transactionManager);
+        insertTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        writeTemplate = new TransactionTemplate(transactionManager);
+        log.info("OTP store: database (near-cache TTL {} ms)", nearCacheTtlMs);
+    }
+
+    @Override
+    public boolean put(long permitId, String code, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        try {
+            insertTemplate.executeWithoutResult(status -> {
+                otpCodeRepository.deleteExpiredByCode(code, now);
+                otpCodeRepository.deleteByPermit(permitId);
+                otpCodeRepository.create(permitId, code, expiresAtMillis);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another permit holds this code (or another node stored this permit at the same moment)
+            evict(permitId);
+            return false;
+        }
+        cache(permitId, code, expiresAtMillis, now);
+        return true;
+    }
+
+    @Override
+    public boolean verify(long permitId, String code) {
+        long now = System.currentTimeMillis();
+        Integer consumed = writeTemplate.execute(status -> otpCodeRepository.consume(permitId, code, now));
+        if (consumed != null && consumed > 0) {
+            evict(permitId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long getExpiresAt(long permitId) {
+        long now = System.currentTimeMillis();
+        Cached cached = getCached(permitId, now);
+        if (cached == null) {
+            Optional<OtpCode> row = otpCodeRepository.findUnexpired(permitId, now);
+            cached = row.map(otp -> cache(permitId, otp.getCode(), otp.getExpiresAt(), now))
+                    .orElseGet(() -> cache(permitId, null, 0, now));
+        }
+        return cached.code != null && cached.expiresAt > now ? cached.expiresAt : 0;
+    }
+
+    @Override
+    public long findPermitId(String code) {
+        if (code == null) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        Cached cached = getCachedByCode(code, now);
+        if (cached != null) {
+            return cached.permitId;
+        }
+        return otpCodeRepository.findUnexpiredByCode(code, now)
+                .map(otp -> cache(otp.getPermitId(), otp.getCode(), otp.getExpiresAt(), now).permitId)
+                .orElse(-1L);
+    }
+
+    @Override
+    public void remove(long permitId) {
+        writeTemplate.executeWithoutResult(status -> otpCodeRepository.deleteByPermit(permitId));
+        evict(permitId);
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        Integer deleted = writeTemplate.execute(status -> otpCodeRepository.deleteExpired(now));
+        synchronized (nearCache) {
+            Iterator<Cached> it = nearCache.values().iterator();
+            while (it.hasNext()) {
+                Cached cached = it.next();
+                if (cached.cachedUntil <= now) {
+                    it.remove();
+                    unindexCode(cached);
+                }
+            }
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    private Cached getCached(long permitId, long now) {
+        synchronized (nearCache) {
+            Cached cached = nearCache.get(permitId);
+            if (cached != null && cached.cachedUntil <= now) {
+                evict(cached);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    // An expired holder says nothing about who holds the code now, so it counts as a miss
+    private Cached getCachedByCode(String code, long now) {
+        synchronized (nearCache) {
+            Cached cached = byCode.get(code);
+            if (cached != null && (cached.cachedUntil <= now || cached.expiresAt <= now)) {
+                evict(cached);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private Cached cache(long permitId, String code, long expiresAt, long now) {
+        Cached cached = new Cached(permitId, code, expiresAt, now + nearCacheTtlMs);
+        synchronized (nearCache) {
+            Cached previous = nearCache.put(permitId, cached);
+            if (previous != null) {
+                unindexCode(previous);
+            }
+            if (code != null) {
+                byCode.put(code, cached);
+            }
+            Iterator<Cached> eldest = nearCache.values().iterator();
+            while (nearCache.size() > nearCacheMaxSize && eldest.hasNext()) {
+                Cached dropped = eldest.next();
+                eldest.remove();
+                unindexCode(dropped);
+            }
+        }
+        return cached;
+    }
+
+    private void evict(long permitId) {
+        synchronized (nearCache) {
+            Cached cached = nearCache.remove(permitId);
+            if (cached != null) {
+                unindexCode(cached);
+            }
+        }
+    }
+
+    // Caller holds nearCache
+    private void evict(Cached cached) {
+        nearCache.remove(cached.permitId, cached);
+        unindexCode(cached);
+    }
+
+    // Caller holds nearCache; the code may already point at a newer entry of another permit
+    private void unindexCode(Cached cached) {
+        if (cached.code != null) {
+            byCode.remove(cached.code, cached);
+        }
+    }
+
+    /**
+     * Near-cache entry; a null code records that the permit has no OTP
+     */
+    @RequiredArgsConstructor
+    private static final class Cached {
+        private final long permitId;
+        private final String code;
+        private final long expiresAt;
+        private final long cachedUntil;
+    }
+}
@@ -0,0 +1,359 @@
+package com.datacenter.workingpermit.service.otp;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-Memory OTP Store
+ * Outstanding OTPs keyed by permit ID, with a reverse index from code to
+ * permit that keeps codes unique and resolves gate scans. Writes and the
+ * wheel are guarded by the store's monitor; both indexes are concurrent maps
+ * of immutable entries, so expiry and code lookups never take the lock. Expiry
+ * times are kept as epoch millis and reclaimed by a hierarchical timing wheel
+ * (3 levels of 64 one-second slots, about 3 days, plus an overflow list), so
+ * adding, removing and expiring an entry are all O(1) and nothing ever scans
+ * the whole store. Reads compare the expiry directly, so an entry the wheel
+ * has not reached yet is still treated as expired. A code consumed inside a
+ * transaction that rolls back is put back, as the database store's DELETE is.
+ * Codes live in this JVM only; use the database store when running several nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+    private static final long WHEEL_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final ObjectProvider<OtpStoreListener> listeners;
+    private final LongSupplier clock;
+
+    // Written under this, read lock-free
+    private final Map<Long, Entry> byPermit = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byCode = new ConcurrentHashMap<>();
+    private final Entry[][] wheels = new Entry[LEVELS][WHEEL_SIZE];
+    private final Entry overflow = Entry.sentinel();
+    private long currentTick;
+    private long expired;
+
+    @Autowired
+    public InMemoryOtpStore(ObjectProvider<OtpStoreListener> listeners) {
+        this(listeners, System::currentTimeMillis);
+    }
+
+    /**
+     * Store reading time from the given epoch-millis clock
+     */
+    InMemoryOtpStore(ObjectProvider<OtpStoreListener> listeners, LongSupplier clock) {
+        this.listeners = listeners;
+        this.clock = clock;
+        this.currentTick = clock.getAsLong() / TICK_MS;
+        for (Entry[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = Entry.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Store an OTP for a permit, replacing its previous one. Returns false
+     * (and stores nothing) if another permit holds the same unexpired code.
+     */
+    @Override
+    public boolean put(long permitId, String code, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            advance(now);
+            Entry holder = byCode.get(code);
+            if (holder != null && holder.permitId != permitId && holder.expiresAt > now) {
+                return false;
+            }
+            Entry previous = byPermit.get(permitId);
+            if (expiresAtMillis > now) {
+                // Publish the new entry before unlinking the old ones, so readers never see the permit without one
+                link(new Entry(permitId, code, expiresAtMillis));
+            }
+            if (holder != null) {
+                unlinkEntry(holder);
+            }
+            if (previous != null) {
+                unlinkEntry(previous);
+            }
+        }
+        listeners.forEach(listener -> listener.onStored(permitId, code, expiresAtMillis));
+        return true;
+    }
+
+    /**
+     * Check a code; a matching code is consumed, an expired one is dropped
+     */
+    @Override
+    public boolean verify(long permitId, String code) {
+        long now = clock.getAsLong();
+        Entry consumed;
+        synchronized (this) {
+            consumed = byPermit.get(permitId);
+            if (consumed == null) {
+                return false;
+            }
+            if (consumed.expiresAt <= now) {
+                unlinkEntry(consumed);
+                expired++;
+                return false;
+            }
+            if (!consumed.code.equals(code)) {
+                return false;
+            }
+            unlinkEntry(consumed);
+        }
+        listeners.forEach(listener -> listener.onRemoved(permitId));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        restore(consumed);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Expiry of the permit's OTP in epoch millis, or 0 if there is none or it expired
+     */
+    @Override
+    public long getExpiresAt(long permitId) {
+        Entry entry = byPermit.get(permitId);
+        return entry != null && entry.expiresAt > clock.getAsLong() ? entry.expiresAt : 0;
+    }
+
+    /**
+     * Permit holding the given unexpired code, or -1
+     */
+    @Override
+    public long findPermitId(String code) {
+        Entry entry = code != null ? byCode.get(code) : null;
+        return entry != null && entry.expiresAt > clock.getAsLong() ? entry.permitId : -1;
+    }
+
+    /**
+     * Drop the permit's OTP
+     */
+    @Override
+    public void remove(long permitId) {
+        synchronized (this) {
+            Entry entry = byPermit.get(permitId);
+            if (entry == null) {
+                return;
+            }
+            unlinkEntry(entry);
+        }
+        listeners.forEach(listener -> listener.onRemoved(permitId));
+    }
+
+    /**
+     * Turn the wheel up to now, releasing every entry that expired on the way
+     */
+    @Override
+    public synchronized int purgeExpired() {
+        long before = expired;
+        advance(clock.getAsLong());
+        return (int) (expired - before);
+    }
+
+    /**
+     * Put a consumed entry back unless the permit or the code got a new OTP meanwhile
+     */
+    private void restore(Entry consumed) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            advance(now);
+            Entry holder = byCode.get(consumed.code);
+            if (consumed.expiresAt <= now || byPermit.get(consumed.permitId) != null
+                    || (holder != null && holder.expiresAt > now)) {
+                return;
+            }
+            link(new Entry(consumed.permitId, consumed.code, consumed.expiresAt));
+            if (holder != null) {
+                unlinkEntry(holder);
+            }
+        }
+        listeners.forEach(listener -> listener.onStored(consumed.permitId, consumed.code, consumed.expiresAt));
+    }
+
+    /**
+     * Number of outstanding OTPs (including expired ones not yet reclaimed)
+     */
+    public int size() {
+        return byPermit.size();
+    }
+
+    private void advance(long now) {
+        long targetTick = now / TICK_MS;
+        if (targetTick <= currentTick) {
+            return;
+        }
+        if (byPermit.isEmpty()) {
+            currentTick = targetTick;
+            return;
+        }
+        if (targetTick - currentTick >= WHEEL_SPAN) {
+            // Idle for longer than the wheel covers; re-place everything once
+            rebuild(targetTick, now);
+            return;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            expireSlot(wheels[0][(int) (currentTick & WHEEL_MASK)]);
+        }
+    }
+
+    // Move the upper-level slots that have come due down the hierarchy
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            long shifted = currentTick >>> (WHEEL_BITS * level);
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            reschedule(wheels[level][(int) (shifted & WHEEL_MASK)]);
+        }
+        if ((currentTick & (WHEEL_SPAN - 1)) == 0) {
+            reschedule(overflow);
+        }
+    }
+
+    private void expireSlot(Entry slot) {
+        Entry entry = slot.next;
+        while (entry != slot) {
+            Entry next = entry.next;
+            if (entry.expiryTick <= currentTick) {
+                unlinkEntry(entry);
+                expired++;
+            }
+            entry = next;
+        }
+    }
+
+    private void reschedule(Entry slot) {
+        Entry entry = slot.next;
+        slot.next = slot;
+        slot.prev = slot;
+        while (entry != slot) {
+            Entry next = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            schedule(entry);
+            entry = next;
+        }
+    }
+
+    private void rebuild(long targetTick, long now) {
+        List<Entry> live = new ArrayList<>(byPermit.size());
+        for (Entry entry : byPermit.values()) {
+            if (entry.expiresAt > now) {
+                live.add(entry);
+            } else {
+                expired++;
+            }
+        }
+        // Only expired entries leave the maps, so lookups of live ones are never interrupted
+        byPermit.values().removeIf(entry -> entry.expiresAt <= now);
+        byCode.values().removeIf(entry -> entry.expiresAt <= now);
+        for (Entry[] wheel : wheels) {
+            for (Entry slot : wheel) {
+                slot.next = slot;
+                slot.prev = slot;
+            }
+        }
+        overflow.next = overflow;
+        overflow.prev = overflow;
+
+        currentTick = targetTick;
+        for (Entry entry : live) {
+            entry.prev = null;
+            entry.next = null;
+            schedule(entry);
+        }
+    }
+
+    private void link(Entry entry) {
+        byPermit.put(entry.permitId, entry);
+        byCode.put(entry.code, entry);
+        schedule(entry);
+    }
+
+    private void schedule(Entry entry) {
+        long delta = entry.expiryTick - currentTick;
+        Entry slot;
+        if (delta < WHEEL_SIZE) {
+            // Cascaded entries due now land in the current slot, which is expired right after
+            long tick = Math.max(entry.expiryTick, currentTick);
+            slot = wheels[0][(int) (tick & WHEEL_MASK)];
+        } else if (delta < WHEEL_SPAN) {
+            int level = delta < (1L << (WHEEL_BITS * 2)) ? 1 : 2;
+            slot = wheels[level][(int) ((entry.expiryTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+        } else {
+            slot = overflow;
+        }
+        entry.prev = slot.prev;
+        entry.next = slot;
+        slot.prev.next = entry;
+        slot.prev = entry;
+    }
+
+    private void unlinkEntry(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+        }
+        byPermit.remove(entry.permitId, entry);
+        byCode.remove(entry.code, entry);
+    }
+
+    /**
+     * One outstanding OTP, linked into exactly one wheel slot. Readers only
+     * use the final fields; the links belong to the wheel and the monitor.
+     */
+    private static final class Entry {
+        final long permitId;
+        final String code;
+        final long expiresAt;
+        final long expiryTick;
+        Entry prev;
+        Entry next;
+
+        Entry(long permitId, String code, long expiresAt) {
+            this.permitId = permitId;
+            this.code = code;
+            this.expiresAt = expiresAt;
+            // First tick at or after the expiry instant
+            this.expiryTick = (expiresAt + TICK_MS - 1) / TICK_MS;
+        }
+
+        static Entry sentinel() {
+            Entry slot = new Entry(-1, null, 0);
+            slot.prev = slot;
+            slot.next = slot;
+            return slot;
+        }
+    }
+}
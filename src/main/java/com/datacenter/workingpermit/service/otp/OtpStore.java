@@ -0,0 +1,40 @@
+package com.datacenter.workingpermit.service.otp;
+
+/**
+ * Storage for outstanding OTPs, one per permit. Selected with app.otp.store:
+ * "memory" keeps codes in this JVM, "database" shares them between nodes
+ * and keeps them across restarts. Times are epoch millis.
+ */
+public interface OtpStore {
+
+    /**
+     * Store an OTP for a permit, replacing its previous one. Returns false
+     * (and stores nothing) if another permit holds the same unexpired code.
+     */
+    boolean put(long permitId, String code, long expiresAtMillis);
+
+    /**
+     * Check a code; a matching unexpired code is consumed, so it verifies only once
+     */
+    boolean verify(long permitId, String code);
+
+    /**
+     * Expiry of the permit's OTP, or 0 if there is none or it expired
+     */
+    long getExpiresAt(long permitId);
+
+    /**
+     * Permit holding the given unexpired code, or -1
+     */
+    long findPermitId(String code);
+
+    /**
+     * Drop the permit's OTP
+     */
+    void remove(long permitId);
+
+    /**
+     * Release expired OTPs and return how many were released
+     */
+    int purgeExpired();
+}
@@ -0,0 +1,16 @@
+package com.datacenter.workingpermit.service.otp;
+
+/**
+ * Persistence hook for the OTP store. Any bean implementing this is told
+ * about every stored and explicitly removed OTP, after the store released
+ * its lock. Expired entries are not reported; a persisted copy carries its
+ * own expiry time.
+ */
+public interface OtpStoreListener {
+
+    default void onStored(long permitId, String code, long expiresAtMillis) {
+    }
+
+    default void onRemoved(long permitId) {
+    }
+}
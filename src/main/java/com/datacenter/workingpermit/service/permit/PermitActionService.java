@@ -1,15 +1,18 @@
 package com.datacenter.workingpermit.service.permit;
 
+import com.datacenter.workingpermit.event.PermitChangedEvent;
 import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
 import com.datacenter.workingpermit.service.notification.NotificationEventService;
 import com.datacenter.workingpermit.service.CameraSyncService;
 import com.datacenter.workingpermit.service.EmailService;
 import com.datacenter.workingpermit.service.OTPService;
+import com.datacenter.workingpermit.service.QRCodeImageCache;
 import com.datacenter.workingpermit.service.QRCodeService;
 import com.google.zxing.WriterException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +26,12 @@ public class PermitActionService {
 
     private final WorkingPermitRepository permitRepository;
     private final QRCodeService qrCodeService;
+    private final QRCodeImageCache qrCodeImageCache;
     private final OTPService otpService;
     private final NotificationEventService notificationService;
     private final EmailService emailService;
     private final CameraSyncService cameraSyncService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @org.springframework.beans.factory.annotation.Value("${app.upload.path:uploads/permits}")
     private String uploadPath;
@@ -50,16 +55,16 @@ public class PermitActionService {
         String qrCodeData = qrCodeService.generateQRCodeDataWithOTP(permit.getPermitNumber(), otp);
         permit.setQrCodeData(qrCodeData);
 
-        // Save QR Code image
-        String qrCodeImagePath = qrCodeService.saveQRCodeToFile(
-                qrCodeData,
-                "permit-" + permitId);
+        // Save QR Code image as the permit's file, which the image cache serves from
+        String qrCodeImagePath = qrCodeImageCache.store(
+                permitId, qrCodeData, qrCodeService.generateQRCodeImage(qrCodeData));
         permit.setQrCodeImagePath(qrCodeImagePath);
 
         // Update status
         permit.setStatus(WorkingPermit.PermitStatus.APPROVED);
 
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
 
         // Send notification to visitor with QR code and OTP
         notificationService.notifyPermitApproved(permit, qrCodeData, otp);
@@ -87,6 +92,7 @@ public class PermitActionService {
         permit.setRejectionReason(reason);
 
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
 
         // Send notification
         notificationService.notifyPermitRejected(permit, reason);
@@ -107,6 +113,7 @@ public class PermitActionService {
             permit.setRejectionReason(reason);
         }
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
     }
 
     /**
@@ -123,6 +130,7 @@ public class PermitActionService {
         permit.setStatus(WorkingPermit.PermitStatus.ACTIVE);
         permit.setActualCheckInTime(LocalDateTime.now());
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
         log.info("Permit {} status updated to ACTIVE", permitId);
 
         // Notify PIC
@@ -142,6 +150,7 @@ public class PermitActionService {
         permit.setStatus(WorkingPermit.PermitStatus.COMPLETED);
         permit.setActualCheckOutTime(LocalDateTime.now());
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
 
         // Notify visitor and PIC
         notificationService.notifyCheckOutSuccess(permit);
@@ -169,6 +178,7 @@ public class PermitActionService {
         permit.setOtpExpiryTime(otpService.getOTPExpiryTime(permitId));
 
         permitRepository.save(permit);
+        eventPublisher.publishEvent(PermitChangedEvent.from(permit));
 
         return newOtp;
     }
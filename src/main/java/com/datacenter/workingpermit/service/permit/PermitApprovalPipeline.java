@@ -0,0 +1,70 @@
+package com.datacenter.workingpermit.service.permit;
+
+import com.datacenter.workingpermit.event.PermitsApprovedEvent;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import com.datacenter.workingpermit.service.CameraSyncService;
+import com.datacenter.workingpermit.service.EmailService;
+import com.datacenter.workingpermit.service.QRCodeImageCache;
+import com.datacenter.workingpermit.service.QRCodeService;
+import com.datacenter.workingpermit.service.notification.NotificationEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Permit Approval Pipeline
+ * Post-commit fan-out for bulk approvals: renders all QR codes in one batch,
+ * writes the image files, then notifies visitors and syncs the scanner.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PermitApprovalPipeline {
+
+    private final WorkingPermitRepository permitRepository;
+    private final QRCodeService qrCodeService;
+    private final QRCodeImageCache qrCodeImageCache;
+    private final NotificationEventService notificationService;
+    private final EmailService emailService;
+    private final CameraSyncService cameraSyncService;
+
+    /**
+     * Runs on the async executor once the approval transaction has committed
+     */
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onPermitsApproved(PermitsApprovedEvent event) {
+        long start = System.currentTimeMillis();
+        List<WorkingPermit> permits = permitRepository.findAllWithVisitorByIdIn(event.getPermitIds());
+
+        // Render every QR code in one parallel batch
+        List<byte[]> images = qrCodeService.generateQRCodeImages(
+                permits.stream().map(WorkingPermit::getQrCodeData).toList());
+
+        for (int i = 0; i < permits.size(); i++) {
+            WorkingPermit permit = permits.get(i);
+            try {
+                // Same path the approval already stored on the permit
+                qrCodeImageCache.store(permit.getId(), permit.getQrCodeData(), images.get(i));
+
+                notificationService.notifyPermitApproved(permit, permit.getQrCodeData(), permit.getOtpCode());
+                emailService.sendOTPEmail(permit.getVisitor(), permit.getOtpCode(), permit);
+                cameraSyncService.syncVisitorOTPWithScanner(permit);
+            } catch (Exception e) {
+                log.error("Post-approval processing failed for permit {}: {}", permit.getPermitNumber(),
+                        e.getMessage());
+            }
+        }
+
+        log.info("Post-approval pipeline finished for {} permits in {} ms",
+                permits.size(), System.currentTimeMillis() - start);
+    }
+}
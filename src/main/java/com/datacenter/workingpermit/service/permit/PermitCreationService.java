@@ -7,15 +7,13 @@ import com.datacenter.workingpermit.model.WorkingPermit;
 import com.datacenter.workingpermit.repository.ApprovalRepository;
 import com.datacenter.workingpermit.repository.UserRepository;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import com.datacenter.workingpermit.service.IdentifierService;
 import com.datacenter.workingpermit.service.notification.NotificationEventService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -25,6 +23,7 @@ public class PermitCreationService {
     private final UserRepository userRepository;
     private final ApprovalRepository approvalRepository;
     private final NotificationEventService notificationService;
+    private final IdentifierService identifierService;
 
     /**
      * Create new working permit request
@@ -45,7 +44,7 @@ public class PermitCreationService {
                 .orElseThrow(() -> new RuntimeException("PIC not found"));
 
         // Generate permit number
-        String permitNumber = generatePermitNumber();
+        String permitNumber = identifierService.nextPermitNumber();
 
         // Create permit
         WorkingPermit permit = WorkingPermit.builder()
@@ -104,12 +103,4 @@ public class PermitCreationService {
 
         return permitRepository.save(permit);
     }
-
-    /**
-     * Generate unique permit number
-     */
-    private String generatePermitNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "WP-" + timestamp;
-    }
 }
@@ -0,0 +1,165 @@
+package com.datacenter.workingpermit.service.permit;
+
+import com.datacenter.workingpermit.event.IdCardChangedEvent;
+import com.datacenter.workingpermit.event.PermitChangedEvent;
+import com.datacenter.workingpermit.model.TempIdCard;
+import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.TempIdCardRepository;
+import com.datacenter.workingpermit.repository.WorkingPermitRepository;
+import com.datacenter.workingpermit.service.OTPService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Permit Expiry Sweeper
+ * Periodically moves approved permits whose visit window ended without a
+ * check-in to EXPIRED, deactivates ID cards past their expiry and purges
+ * expired OTPs. Each run only looks at rows that became due or changed since
+ * the previous run (time watermark); the first run after startup catches up
+ * on everything. Rows are updated in bulk, one batch per transaction, and the
+ * usual change events are published so in-memory models follow along.
+ *
+ * Checked-in visitors past their window are not expired (they still have to
+ * check out); they are only counted and logged.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PermitExpirySweeper {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String CARD_EXPIRED_REASON = "Expired";
+
+    private final WorkingPermitRepository permitRepository;
+    private final TempIdCardRepository idCardRepository;
+    private final OTPService otpService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.expiry.watermark-overlap:60000}")
+    private long watermarkOverlapMs;
+
+    // Start of the window the next run looks at; null until the first run completed
+    private volatile LocalDateTime watermark;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong expiredPermits = new AtomicLong();
+    private final AtomicLong deactivatedCards = new AtomicLong();
+    private final AtomicLong purgedOtps = new AtomicLong();
+    private volatile long overdueActive;
+
+    /**
+     * Expire no-shows, deactivate expired cards and purge expired OTPs
+     */
+    @Scheduled(fixedDelayString = "${app.expiry.sweep-interval:60000}",
+            initialDelayString = "${app.expiry.initial-delay:30000}")
+    public synchronized void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap covers transactions that were still in flight when the last run read
+        LocalDateTime since = watermark != null ? watermark.minusNanos(watermarkOverlapMs * 1_000_000) : BEGINNING;
+
+        try {
+            int permits = expireNoShows(now, since);
+            int cards = deactivateExpiredCards(now, since);
+            purgedOtps.addAndGet(otpService.cleanupExpiredOTPs());
+            overdueActive = permitRepository.countOverdueActivePermits(now);
+
+            watermark = now;
+            runs.incrementAndGet();
+
+            if (permits > 0 || cards > 0) {
+                log.info("Expiry sweep: {} permits expired, {} ID cards deactivated", permits, cards);
+            }
+            if (overdueActive > 0) {
+                log.warn("Expiry sweep: {} checked-in visitors are past their scheduled end time", overdueActive);
+            }
+        } catch (Exception e) {
+            // Watermark stays put, so the next run retries the same window
+            log.error("Expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sweep counters and current watermark
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("runs", runs.get());
+        stats.put("expiredPermits", expiredPermits.get());
+        stats.put("deactivatedCards", deactivatedCards.get());
+        stats.put("purgedOtps", purgedOtps.get());
+        stats.put("overdueActive", overdueActive);
+        stats.put("watermark", watermark);
+        return stats;
+    }
+
+    private int expireNoShows(LocalDateTime now, LocalDateTime since) {
+        int total = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Long> ids = permitRepository.findNoShowIdsSince(now, since, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return Batch.EMPTY;
+                }
+                int updated = permitRepository.expireNoShows(ids, WorkingPermit.PermitStatus.EXPIRED, now);
+                permitRepository.findAllWithVisitorByIdIn(ids).stream()
+                        .filter(permit -> permit.getStatus() == WorkingPermit.PermitStatus.EXPIRED)
+                        .forEach(permit -> eventPublisher.publishEvent(PermitChangedEvent.from(permit)));
+                return new Batch(ids.size(), updated);
+            });
+            total += batch.updated;
+        } while (batch.selected == batchSize);
+
+        expiredPermits.addAndGet(total);
+        return total;
+    }
+
+    private int deactivateExpiredCards(LocalDateTime now, LocalDateTime since) {
+        int total = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Long> ids = idCardRepository.findExpiredActiveIdsSince(now, since, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return Batch.EMPTY;
+                }
+                int updated = idCardRepository.deactivateAll(ids, now, CARD_EXPIRED_REASON);
+                for (TempIdCard card : idCardRepository.findAllWithPermitByIdIn(ids)) {
+                    eventPublisher.publishEvent(IdCardChangedEvent.from(card, card.getWorkingPermit()));
+                }
+                return new Batch(ids.size(), updated);
+            });
+            total += batch.updated;
+        } while (batch.selected == batchSize);
+
+        deactivatedCards.addAndGet(total);
+        return total;
+    }
+
+    /**
+     * Rows picked and rows actually changed by one batch (another node may have got there first)
+     */
+    @RequiredArgsConstructor
+    private static final class Batch {
+        static final Batch EMPTY = new Batch(0, 0);
+
+        private final int selected;
+        private final int updated;
+    }
+}
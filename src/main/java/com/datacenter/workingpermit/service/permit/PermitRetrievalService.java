@@ -1,13 +1,29 @@
 package com.datacenter.workingpermit.service.permit;
 
+import com.datacenter.workingpermit.dto.AccessLogQuery;
+import com.datacenter.workingpermit.dto.AccessLogResponse;
+import com.datacenter.workingpermit.dto.ApprovalSummary;
+import com.datacenter.workingpermit.dto.IdCardStatus;
+import com.datacenter.workingpermit.dto.KeysetCursor;
+import com.datacenter.workingpermit.dto.PermitDetail;
+import com.datacenter.workingpermit.dto.PermitPage;
+import com.datacenter.workingpermit.dto.PermitQuery;
+import com.datacenter.workingpermit.dto.PermitSummary;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.model.WorkingPermit;
+import com.datacenter.workingpermit.repository.AccessLogRepository;
+import com.datacenter.workingpermit.repository.ApprovalRepository;
+import com.datacenter.workingpermit.repository.TempIdCardRepository;
 import com.datacenter.workingpermit.repository.WorkingPermitRepository;
 import com.datacenter.workingpermit.repository.UserRepository;
+import com.datacenter.workingpermit.service.QRCodeImageCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +32,17 @@ import java.util.Optional;
 @Slf4j
 public class PermitRetrievalService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final WorkingPermitRepository permitRepository;
     private final UserRepository userRepository;
-    private final com.datacenter.workingpermit.service.QRCodeService qrCodeService;
+    private final ApprovalRepository approvalRepository;
+    private final AccessLogRepository accessLogRepository;
+    private final TempIdCardRepository idCardRepository;
+
+    @Value("${app.permit.detail.access-log-limit:20}")
+    private int detailAccessLogLimit;
 
     /**
      * Get permit by ID
@@ -27,18 +51,13 @@ public class PermitRetrievalService {
         if (id == null)
             return Optional.empty();
 
-        Optional<WorkingPermit> permitOpt = permitRepository.findById(id);
+        Optional<WorkingPermit> permitOpt = permitRepository.findDetailById(id);
 
         if (permitOpt.isPresent()) {
             WorkingPermit permit = permitOpt.get();
-            // Populate Base64 QR Code if data exists
+            // The image itself is served (and cached) by GET /api/permits/{id}/qrcode
             if (permit.getQrCodeData() != null) {
-                try {
-                    String base64 = qrCodeService.generateQRCodeBase64(permit.getQrCodeData());
-                    permit.setQrCodeBase64(base64);
-                } catch (Exception e) {
-                    log.error("Failed to generate QR code Base64 for permit {}: {}", id, e.getMessage());
-                }
+                permit.setQrCodeVersion(QRCodeImageCache.keyOf(permit.getQrCodeData()));
             }
             return Optional.of(permit);
         }
@@ -46,6 +65,38 @@ public class PermitRetrievalService {
         return Optional.empty();
     }
 
+    /**
+     * Get the permit with its approvals, recent access logs and ID card status.
+     * Always four selects: the permit with visitor, PIC and equipment through
+     * the detail entity graph, then one projection each for the rest.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PermitDetail> getPermitDetail(Long id) {
+        Optional<WorkingPermit> permit = getPermitById(id);
+        if (permit.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<ApprovalSummary> approvals = approvalRepository.findSummariesByPermitId(id);
+
+        AccessLogQuery logQuery = new AccessLogQuery();
+        logQuery.setPermitId(id);
+        List<AccessLogResponse> accessLogs = accessLogRepository.findPage(logQuery, null, null, detailAccessLogLimit);
+
+        IdCardStatus idCard = idCardRepository.findStatusByPermitId(id).orElse(null);
+
+        return Optional.of(new PermitDetail(permit.get(), approvals, accessLogs, idCard));
+    }
+
+    /**
+     * Get QR code data for a permit without loading the entity
+     */
+    public Optional<String> getQRCodeData(Long id) {
+        if (id == null)
+            return Optional.empty();
+        return permitRepository.findQrCodeDataById(id);
+    }
+
     /**
      * Get permit by permit number
      */
@@ -100,8 +151,35 @@ public class PermitRetrievalService {
      * Get all permits
      */
     public List<WorkingPermit> getAllPermits() {
-        return permitRepository.findAll(org.springframework.data.domain.Sort
-                .by(org.springframework.data.domain.Sort.Direction.DESC, "createdAt"));
+        return permitRepository.findAllWithDetails();
+    }
+
+    /**
+     * Get one page of permit summaries, newest first. Covers every listing:
+     * by visitor, by PIC, by status (pending PIC = picId + PENDING_PIC,
+     * pending manager = PENDING_MANAGER) and all permits.
+     */
+    public PermitPage getPermitSummaryPage(PermitQuery query) {
+        int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        KeysetCursor after = KeysetCursor.decode(query.getCursor());
+        LocalDateTime afterCreatedAt = after != null ? after.getTimestamp() : null;
+        Long afterId = after != null ? after.getId() : null;
+
+        // Fetch one extra row to know whether another page exists
+        List<PermitSummary> rows = permitRepository.findSummaryPage(query, afterCreatedAt, afterId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<PermitSummary> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PermitSummary last = items.get(items.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new PermitPage(items, nextCursor, hasMore);
     }
 
     /**
@@ -112,7 +190,7 @@ public class PermitRetrievalService {
             throw new IllegalArgumentException("Visitor ID cannot be null");
         User visitor = userRepository.findById(visitorId)
                 .orElseThrow(() -> new RuntimeException("Visitor not found"));
-        return permitRepository.findByVisitorOrderByCreatedAtDesc(visitor);
+        return permitRepository.findByVisitorIdWithDetails(visitor.getId());
     }
 
     /**
@@ -123,6 +201,6 @@ public class PermitRetrievalService {
             throw new IllegalArgumentException("PIC ID cannot be null");
         User pic = userRepository.findById(picId)
                 .orElseThrow(() -> new RuntimeException("PIC not found"));
-        return permitRepository.findByPicOrderByCreatedAtDesc(pic);
+        return permitRepository.findByPicIdWithDetails(pic.getId());
     }
 }
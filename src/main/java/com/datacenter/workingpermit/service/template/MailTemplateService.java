@@ -0,0 +1,81 @@
+package com.datacenter.workingpermit.service.template;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mail Template Service
+ * Loads every template under classpath:mail-templates/ once at startup and
+ * keeps the compiled form. Files ending in .html are HTML templates (values
+ * escaped), files ending in .txt are plain-text templates.
+ */
+@Service
+@Slf4j
+public class MailTemplateService {
+
+    private static final String LOCATION = "classpath:mail-templates/*";
+
+    private final Map<String, CompiledTemplate> templates = new HashMap<>();
+
+    @PostConstruct
+    void load() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+        for (Resource resource : resources) {
+            String fileName = resource.getFilename();
+            if (fileName == null || !(fileName.endsWith(".html") || fileName.endsWith(".txt"))) {
+                continue;
+            }
+            templates.put(fileName, CompiledTemplate.compile(fileName, read(resource), fileName.endsWith(".html")));
+        }
+        log.info("Compiled {} mail templates", templates.size());
+    }
+
+    /**
+     * Render a template by file name, e.g. "otp.html" or "permit-approved.txt"
+     */
+    public String render(String templateName, Map<String, ?> values) {
+        return get(templateName).render(values);
+    }
+
+    /**
+     * Build a value map from alternating names and values; values may be null
+     */
+    public static Map<String, Object> values(Object... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Template values must be name/value pairs");
+        }
+        Map<String, Object> values = new HashMap<>(namesAndValues.length);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    /**
+     * Compiled template by file name
+     */
+    public CompiledTemplate get(String templateName) {
+        CompiledTemplate template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Mail template not found: " + templateName);
+        }
+        return template;
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            // Editors add a final newline; the rendered text should not end with one
+            return source.endsWith("\n") ? source.substring(0, source.length() - 1) : source;
+        }
+    }
+}
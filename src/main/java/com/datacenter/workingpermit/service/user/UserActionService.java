@@ -1,9 +1,11 @@
 package com.datacenter.workingpermit.service.user;
 
 import com.datacenter.workingpermit.dto.UserRegistrationRequest;
+import com.datacenter.workingpermit.event.UserChangedEvent;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +16,7 @@ public class UserActionService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Register new user from DTO
@@ -49,7 +52,9 @@ public class UserActionService {
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.from(saved));
+        return saved;
     }
 
     /**
@@ -70,7 +75,9 @@ public class UserActionService {
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.from(saved));
+        return saved;
     }
 
     /**
@@ -88,7 +95,9 @@ public class UserActionService {
         user.setPhoneNumber(updatedUser.getPhoneNumber());
         user.setCompany(updatedUser.getCompany());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.from(saved));
+        return saved;
     }
 
     /**
@@ -106,7 +115,10 @@ public class UserActionService {
         }
 
         user.setPassword(passwordEncoder.encode(newPassword));
+        // Revoke tokens issued with the old password
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.from(user));
     }
 
     /**
@@ -120,7 +132,11 @@ public class UserActionService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setEnabled(enabled);
+        if (!enabled) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
         userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.from(user));
     }
 
     /**
@@ -130,6 +146,8 @@ public class UserActionService {
     public void deleteUser(Long userId) {
         if (userId == null)
             throw new IllegalArgumentException("User ID cannot be null");
+        userRepository.findById(userId).ifPresent(user ->
+                eventPublisher.publishEvent(UserChangedEvent.deleted(user)));
         userRepository.deleteById(userId);
     }
 }
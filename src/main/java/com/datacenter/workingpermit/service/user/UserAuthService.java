@@ -1,31 +0,0 @@
-package com.datacenter.workingpermit.service.user;
-
-import com.datacenter.workingpermit.model.User;
-import com.datacenter.workingpermit.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
-
-@Service
-@RequiredArgsConstructor
-public class UserAuthService {
-
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-
-    /**
-     * Authenticate user
-     */
-    public User authenticate(String username, String password) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
-
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
-        }
-        if (!user.isEnabled()) {
-            throw new RuntimeException("User account is disabled");
-        }
-        return user;
-    }
-}
@@ -3,17 +3,21 @@ package com.datacenter.workingpermit.service.user;
 import com.datacenter.workingpermit.model.User;
 import com.datacenter.workingpermit.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
-public class UserRetrievalService implements UserDetailsService {
+@Slf4j
+public class UserRetrievalService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -23,6 +27,20 @@ public class UserRetrievalService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    /**
+     * Store a re-encoded password after a login whose hash used an outdated cost.
+     * Called by the authentication provider with the password already verified.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        log.info("Upgraded password hash for user {}", user.getUsername());
+        return userRepository.save(user);
+    }
+
     /**
      * Find user by ID
      */
@@ -13,6 +13,9 @@ window.switchTab = async function (tab) {
         else if (tab === 'approvals') PICDashboard.loadApprovals();
     } else if (user.role === 'VISITOR') {
         VisitorDashboard.loadPermits();
+    } else if (user.role === 'SECURITY') {
+        if (tab === 'logs') SecurityDashboard.loadLogs();
+        else SecurityDashboard.loadAllPermits();
     }
     // Add others...
 
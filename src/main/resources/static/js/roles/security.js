@@ -93,5 +93,67 @@ const SecurityDashboard = {
         } catch (e) {
             tbody.innerHTML = `<tr><td colspan="6" class="text-center text-danger">Error: ${e.message}</td></tr>`;
         }
+    },
+
+    // Without a cursor the table is reset; with one the next page is appended
+    async loadLogs(cursor) {
+        const tbody = document.getElementById('table-body');
+        const thead = document.getElementById('table-head');
+
+        if (!cursor) {
+            thead.innerHTML = `
+                <tr>
+                    <th>Time</th>
+                    <th>Permit #</th>
+                    <th>Visitor</th>
+                    <th>Type</th>
+                    <th>Location</th>
+                    <th>Status</th>
+                </tr>
+            `;
+            tbody.innerHTML = '<tr><td colspan="6" class="text-center p-4"><div class="d-flex justify-center items-center gap-2 text-muted"><i class="ri-loader-4-line ri-spin"></i> Loading access logs...</div></td></tr>';
+        }
+
+        try {
+            const page = await Access.getLogs(cursor);
+            const rows = page.items.map(l => `
+                <tr>
+                    <td>${UI.formatDate(l.timestamp)}</td>
+                    <td class="font-bold text-primary">${l.permitNumber || '-'}</td>
+                    <td>${l.visitorName || '<span class="text-muted">-</span>'}</td>
+                    <td>${l.accessType}</td>
+                    <td>${l.location || '-'}</td>
+                    <td><span class="badge ${l.status === 'SUCCESS' ? 'badge-success' : 'badge-danger'}">${l.status}</span></td>
+                </tr>
+            `).join('');
+
+            const more = document.getElementById('logs-load-more');
+            if (more) more.remove();
+
+            if (!cursor) {
+                tbody.innerHTML = rows || '<tr><td colspan="6" class="text-center p-4 text-muted">No access logs found.</td></tr>';
+            } else {
+                tbody.insertAdjacentHTML('beforeend', rows);
+            }
+
+            if (page.nextCursor) {
+                this.nextLogCursor = page.nextCursor;
+                tbody.insertAdjacentHTML('beforeend', `
+                    <tr id="logs-load-more">
+                        <td colspan="6" class="text-center p-2">
+                            <button class="btn btn-sm btn-outline text-xs" onclick="SecurityDashboard.loadLogs(SecurityDashboard.nextLogCursor)">
+                                <i class="ri-arrow-down-line"></i> Load more
+                            </button>
+                        </td>
+                    </tr>
+                `);
+            }
+        } catch (e) {
+            if (!cursor) {
+                tbody.innerHTML = `<tr><td colspan="6" class="text-center text-danger">Error: ${e.message}</td></tr>`;
+            } else {
+                UI.showAlert('Failed to load more logs: ' + e.message, 'danger');
+            }
+        }
     }
 };
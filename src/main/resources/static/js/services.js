@@ -82,8 +82,9 @@ const Access = {
         return await API.post(`/access/check-out?permitId=${permitId}`, {});
     },
 
-    async getLogs() {
-        return await API.get('/access/logs');
+    // Returns { items, nextCursor, hasMore }; pass nextCursor back in for the next page
+    async getLogs(cursor) {
+        return await API.get(cursor ? `/access/logs?cursor=${encodeURIComponent(cursor)}` : '/access/logs');
     },
 
     async getPermitLogs(permitId) {
@@ -0,0 +1,157 @@
+package com.datacenter.workingpermit.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs against an in-memory H2 behind a deliberately small Hikari pool, with
+ * two service instances standing in for two nodes sharing the database.
+ */
+class IdentifierServiceTest {
+
+    private static final int POOL_SIZE = 4;
+    private static final int BLOCK_SIZE = 5;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:identifiers-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(POOL_SIZE);
+        // A starved pool fails the test quickly instead of hanging it
+        config.setConnectionTimeout(5000);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void numbersHaveTheDocumentedFormat() {
+        IdentifierService service = newService();
+
+        assertThat(service.nextPermitNumber()).matches("WP-\\d{8}-000001");
+        assertThat(service.nextPermitNumber()).matches("WP-\\d{8}-000002");
+        assertThat(service.nextCardNumber()).matches("TMP-\\d{8}-000001");
+    }
+
+    @Test
+    void concurrentTransactionsOnTwoNodesNeverCollideOrStarveThePool() throws Exception {
+        IdentifierService[] nodes = {newService(), newService()};
+        int threads = 32;
+        int transactionsPerThread = 20;
+        int numbersPerTransaction = 7;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            IdentifierService node = nodes[t % nodes.length];
+            boolean cards = t % 4 == 3;
+            results.add(executor.submit(() -> {
+                start.await();
+                List<String> issued = new ArrayList<>();
+                for (int i = 0; i < transactionsPerThread; i++) {
+                    // Like createPermit/issueIdCard: the caller already holds a connection
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                        for (int n = 0; n < numbersPerTransaction; n++) {
+                            issued.add(cards ? node.nextCardNumber() : node.nextPermitNumber());
+                        }
+                    });
+                }
+                return issued;
+            }));
+        }
+        start.countDown();
+
+        Set<String> unique = new HashSet<>();
+        int total = 0;
+        for (Future<List<String>> result : results) {
+            List<String> issued = result.get(60, TimeUnit.SECONDS);
+            assertStrictlyIncreasing(issued);
+            unique.addAll(issued);
+            total += issued.size();
+        }
+        executor.shutdown();
+
+        assertThat(total).isEqualTo(threads * transactionsPerThread * numbersPerTransaction);
+        assertThat(unique).hasSize(total);
+    }
+
+    @Test
+    void numbersOfRolledBackTransactionsAreNotReissued() {
+        IdentifierService service = newService();
+        List<String> rolledBack = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BLOCK_SIZE + 2; i++) {
+                rolledBack.add(service.nextPermitNumber());
+            }
+            status.setRollbackOnly();
+        });
+
+        IdentifierService restarted = newService();
+        Set<String> afterRestart = new HashSet<>();
+        for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+            afterRestart.add(restarted.nextPermitNumber());
+        }
+        assertThat(afterRestart).doesNotContainAnyElementsOf(rolledBack);
+    }
+
+    private IdentifierService newService() {
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        when(sessionFactory.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+
+        IdentifierService service = new IdentifierService(jdbcTemplate, entityManagerFactory);
+        ReflectionTestUtils.setField(service, "blockSize", BLOCK_SIZE);
+        service.init();
+        return service;
+    }
+
+    private static void assertStrictlyIncreasing(List<String> issued) {
+        for (int i = 1; i < issued.size(); i++) {
+            assertThat(suffix(issued.get(i))).isGreaterThan(suffix(issued.get(i - 1)));
+        }
+    }
+
+    private static long suffix(String number) {
+        return Long.parseLong(number.substring(number.lastIndexOf('-') + 1));
+    }
+}
@@ -0,0 +1,39 @@
+package com.datacenter.workingpermit.service;
+
+/**
+ * The regex-based OTP extraction CameraSyncService used before ScanCodeParser,
+ * kept (without its logging) as the reference the parser is checked against.
+ */
+final class LegacyScanCodeExtractor {
+
+    private LegacyScanCodeExtractor() {
+    }
+
+    static String extract(String scannedCode) {
+        if (scannedCode == null || scannedCode.isEmpty()) {
+            return null;
+        }
+
+        scannedCode = scannedCode.trim().replaceAll("\\s+", "");
+
+        if (scannedCode.matches("QR-[A-Z_]+-\\d+") ||
+                scannedCode.matches("PERMIT-\\d+-[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}")) {
+            return null;
+        }
+
+        if (scannedCode.toLowerCase().startsWith("otp:")) {
+            return scannedCode.substring(4).trim();
+        }
+
+        if (scannedCode.toUpperCase().contains("-OTP-")) {
+            int otpIndex = scannedCode.toUpperCase().indexOf("-OTP-");
+            return scannedCode.substring(otpIndex + 5).trim();
+        }
+
+        if (scannedCode.matches("^\\d{6}$")) {
+            return scannedCode;
+        }
+
+        return null;
+    }
+}
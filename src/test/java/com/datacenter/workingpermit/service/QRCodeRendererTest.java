@@ -0,0 +1,124 @@
+package com.datacenter.workingpermit.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QRCodeRendererTest {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-:/ ";
+
+    private QRCodeRenderer renderer;
+
+    @AfterEach
+    void tearDown() {
+        if (renderer != null) {
+            renderer.shutdown();
+        }
+    }
+
+    @Test
+    void matchesQrCodeWriterPixelForPixel() throws Exception {
+        Random random = new Random(20261017L);
+        int[][] sizes = { { 300, 300 }, { 301, 299 }, { 250, 400 }, { 57, 57 }, { 10, 10 } };
+
+        for (int[] size : sizes) {
+            renderer = newRenderer(size[0], size[1]);
+            for (int n = 0; n < 40; n++) {
+                String contents = randomContents(random, 1 + random.nextInt(200));
+                BufferedImage expected = MatrixToImageWriter.toBufferedImage(
+                        new QRCodeWriter().encode(contents, BarcodeFormat.QR_CODE, size[0], size[1]));
+                BufferedImage actual = ImageIO.read(new ByteArrayInputStream(renderer.render(contents)));
+
+                assertSamePixels(actual, expected, contents);
+            }
+            renderer.shutdown();
+        }
+    }
+
+    @Test
+    void rendersDecodableCodes() throws Exception {
+        renderer = newRenderer(300, 300);
+        String contents = "PERMIT-12-" + UUID.randomUUID();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(renderer.render(contents)));
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+        assertThat(new QRCodeReader().decode(bitmap).getText()).isEqualTo(contents);
+    }
+
+    @Test
+    void batchKeepsInputOrder() throws Exception {
+        renderer = newRenderer(200, 200);
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            contents.add("PERMIT-" + i + "-" + UUID.randomUUID());
+        }
+
+        List<byte[]> images = renderer.generateBatch(contents);
+
+        assertThat(images).hasSize(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            assertThat(images.get(i)).isEqualTo(renderer.render(contents.get(i)));
+        }
+        assertThat(renderer.generateBatch(List.of())).isEmpty();
+    }
+
+    @Test
+    void rejectsEmptyContents() {
+        renderer = newRenderer(300, 300);
+
+        assertThatThrownBy(() -> renderer.render("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> renderer.render(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static QRCodeRenderer newRenderer(int width, int height) {
+        QRCodeRenderer renderer = new QRCodeRenderer();
+        ReflectionTestUtils.setField(renderer, "width", width);
+        ReflectionTestUtils.setField(renderer, "height", height);
+        ReflectionTestUtils.setField(renderer, "parallelism", 4);
+        renderer.init();
+        return renderer;
+    }
+
+    private static String randomContents(Random random, int length) {
+        StringBuilder contents = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            contents.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return contents.toString();
+    }
+
+    private static void assertSamePixels(BufferedImage actual, BufferedImage expected, String contents) {
+        assertThat(actual.getWidth()).as("width for '%s'", contents).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).as("height for '%s'", contents).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                // Compare black/white only; the reference is RGB, the PNG is 1-bit gray
+                boolean expectedBlack = (expected.getRGB(x, y) & 0xFFFFFF) == 0;
+                boolean actualBlack = (actual.getRGB(x, y) & 0xFFFFFF) == 0;
+                if (expectedBlack != actualBlack) {
+                    throw new AssertionError("Pixel (" + x + "," + y + ") differs for '" + contents + "'");
+                }
+            }
+        }
+    }
+}
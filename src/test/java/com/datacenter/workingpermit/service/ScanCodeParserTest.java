@@ -0,0 +1,64 @@
+package com.datacenter.workingpermit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScanCodeParserTest {
+
+    private static final int RANDOM_INPUTS = 2_000_000;
+
+    // Fragments the generator glues together, so formats and near-misses both turn up often
+    private static final String[] FRAGMENTS = {
+            "otp:", "OTP:", "oTp:", "-OTP-", "-otp-", "PERMIT-", "QR-", "AUDIT", "CABLE_PULL", "WP-2024-001",
+            "123456", "12345", "1234567", "0", "9", "-", "_", " ", "\t", "\n", "\r", "\u000B", "\f", "\u0001",
+            " ", "a1b2c3d4-e5f6-a7b8-c9d0-e1f2a3b4c5d6", "A1B2C3D4-E5F6-A7B8-C9D0-E1F2A3B4C5D6",
+            "a1b2c3d4", "abcdef", "x", "Z", ":"
+    };
+
+    @Test
+    void extractsDocumentedFormats() {
+        assertThat(ScanCodeParser.extractOtp("123456")).isEqualTo("123456");
+        assertThat(ScanCodeParser.extractOtp("  123 456 ")).isEqualTo("123456");
+        assertThat(ScanCodeParser.extractOtp("otp:654321")).isEqualTo("654321");
+        assertThat(ScanCodeParser.extractOtp("OTP: 654321")).isEqualTo("654321");
+        assertThat(ScanCodeParser.extractOtp("PERMIT-WP-2024-001-OTP-111222")).isEqualTo("111222");
+        assertThat(ScanCodeParser.extractOtp("permit-wp-2024-001-otp-111222")).isEqualTo("111222");
+    }
+
+    @Test
+    void rejectsQrCodesAndNonOtpInput() {
+        assertThat(ScanCodeParser.extractOtp("QR-AUDIT-1769700507200")).isNull();
+        assertThat(ScanCodeParser.extractOtp("PERMIT-12-a1b2c3d4-e5f6-a7b8-c9d0-e1f2a3b4c5d6")).isNull();
+        assertThat(ScanCodeParser.extractOtp("12345")).isNull();
+        assertThat(ScanCodeParser.extractOtp("1234567")).isNull();
+        assertThat(ScanCodeParser.extractOtp("abc")).isNull();
+        assertThat(ScanCodeParser.extractOtp("   ")).isNull();
+        assertThat(ScanCodeParser.extractOtp("")).isNull();
+        assertThat(ScanCodeParser.extractOtp(null)).isNull();
+    }
+
+    @Test
+    void returnsCleanScanWithoutCopying() {
+        String scanned = "123456";
+        assertThat(ScanCodeParser.extractOtp(scanned)).isSameAs(scanned);
+    }
+
+    @Test
+    void matchesRegexImplementationOnRandomInput() {
+        Random random = new Random(20261017L);
+        StringBuilder input = new StringBuilder();
+        for (int n = 0; n < RANDOM_INPUTS; n++) {
+            input.setLength(0);
+            int parts = 1 + random.nextInt(5);
+            for (int p = 0; p < parts; p++) {
+                input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String scanned = input.toString();
+            assertThat(ScanCodeParser.extractOtp(scanned)).as("input '%s'", scanned)
+                    .isEqualTo(LegacyScanCodeExtractor.extract(scanned));
+        }
+    }
+}
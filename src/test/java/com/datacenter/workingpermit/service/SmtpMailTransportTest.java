@@ -0,0 +1,191 @@
+package com.datacenter.workingpermit.service;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmtpMailTransportTest {
+
+    private static final String FROM = "noreply@datacenter.com";
+    private static final String PASSWORD = "secret";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser(FROM, PASSWORD))
+            .withPerMethodLifecycle(true);
+
+    private SmtpMailTransport transport;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (transport != null) {
+            transport.shutdown();
+        }
+    }
+
+    @Test
+    void sendsQueuedMessagesInBatches() throws Exception {
+        transport = newTransport(PASSWORD, 10, 0);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            MimeMessage message = transport.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom(FROM);
+            helper.setTo("visitor" + i + "@example.com");
+            helper.setSubject("Permit " + i);
+            helper.setText("<p>Body " + i + "</p>", true);
+            results.add(transport.send(message));
+        }
+
+        transport.flush();
+        awaitAll(results);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(25);
+        Map<String, Object> stats = transport.getStats();
+        assertThat(stats.get("messagesSent")).isEqualTo(25L);
+        assertThat(stats.get("batchesSent")).isEqualTo(3L);
+        assertThat(stats.get("messagesFailed")).isEqualTo(0L);
+    }
+
+    @Test
+    void reusesOneAuthenticatedConnectionAcrossBatches() throws Exception {
+        transport = newTransport(PASSWORD, 5, 0);
+
+        for (int round = 0; round < 3; round++) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(transport.send(newMessage("visitor" + round + i + "@example.com", round)));
+            }
+            transport.flush();
+            awaitAll(results);
+        }
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(15);
+        Map<String, Object> stats = transport.getStats();
+        assertThat(stats.get("batchesSent")).isEqualTo(3L);
+        assertThat(stats.get("connects")).isEqualTo(1L);
+    }
+
+    @Test
+    void reconnectsWhenTheServerDroppedThePooledConnection() throws Exception {
+        transport = newTransport(PASSWORD, 5, 0);
+        CompletableFuture<Void> first = transport.send(newMessage("visitor1@example.com", 1));
+        transport.flush();
+        first.get(10, TimeUnit.SECONDS);
+
+        // Restarts the server, closing the pooled connection and dropping the configured user
+        greenMail.reset();
+        greenMail.setUser(FROM, FROM, PASSWORD);
+        CompletableFuture<Void> second = transport.send(newMessage("visitor2@example.com", 2));
+        transport.flush();
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(transport.getStats().get("connects")).isEqualTo(2L);
+    }
+
+    @Test
+    void coalescesNotificationsToTheSameRecipient() throws Exception {
+        transport = newTransport(PASSWORD, 20, 0);
+        List<CompletableFuture<Void>> results = List.of(
+                transport.sendText("visitor@example.com", "Check-in", "You are checked in.", null),
+                transport.sendText("Visitor@Example.com", "Check-out", "You are checked out.", null),
+                transport.sendText("visitor@example.com", "Permit completed", "Your permit is completed.", null),
+                transport.sendText("pic@example.com", "Permit completed", "A permit you own is completed.", null));
+
+        transport.flush();
+        awaitAll(results);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        MimeMessage digest = received[0].getAllRecipients()[0].toString().equalsIgnoreCase("visitor@example.com")
+                ? received[0] : received[1];
+        assertThat(digest.getSubject()).isEqualTo("3 notifications - Data Center Working Permit");
+        assertThat(GreenMailUtil.getBody(digest))
+                .contains("You are checked in.", "You are checked out.", "Your permit is completed.");
+        assertThat(transport.getStats().get("coalesced")).isEqualTo(2L);
+    }
+
+    @Test
+    void holdsNotificationsUntilTheCoalesceWindowEnds() throws Exception {
+        transport = newTransport(PASSWORD, 20, 60_000);
+        CompletableFuture<Void> result = transport.sendText("visitor@example.com", "Check-in", "In.", null);
+
+        transport.flush();
+
+        assertThat(result).isNotDone();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(transport.getStats().get("pendingDigests")).isEqualTo(1);
+    }
+
+    @Test
+    void failsEveryMessageOfABatchWhenAuthenticationFails() throws Exception {
+        transport = newTransport("wrong-password", 20, 0);
+        CompletableFuture<Void> result = transport.sendText("visitor@example.com", "Check-in", "In.", null);
+
+        transport.flush();
+
+        assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(transport.getStats().get("messagesFailed")).isEqualTo(1L);
+    }
+
+    @Test
+    void rejectsEmptyRecipient() throws Exception {
+        transport = newTransport(PASSWORD, 20, 0);
+
+        assertThat(transport.sendText("", "Subject", "Text", null)).isCompletedExceptionally();
+    }
+
+    private MimeMessage newMessage(String to, int n) throws Exception {
+        MimeMessage message = transport.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(FROM);
+        helper.setTo(to);
+        helper.setSubject("Permit " + n);
+        helper.setText("<p>Body " + n + "</p>", true);
+        return message;
+    }
+
+    private static SmtpMailTransport newTransport(String password, int batchSize, long coalesceWindowMs)
+            throws Exception {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        mailSender.setUsername(FROM);
+        mailSender.setPassword(password);
+        Properties properties = mailSender.getJavaMailProperties();
+        properties.put("mail.smtp.auth", "true");
+
+        SmtpMailTransport transport = new SmtpMailTransport(mailSender);
+        ReflectionTestUtils.setField(transport, "fromEmail", FROM);
+        ReflectionTestUtils.setField(transport, "connections", 2);
+        ReflectionTestUtils.setField(transport, "batchSize", batchSize);
+        ReflectionTestUtils.setField(transport, "coalesceWindowMs", coalesceWindowMs);
+        transport.init();
+        return transport;
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> results) throws Exception {
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+    }
+}
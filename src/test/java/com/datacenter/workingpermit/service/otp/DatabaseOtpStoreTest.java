@@ -0,0 +1,171 @@
+package com.datacenter.workingpermit.service.otp;
+
+import com.datacenter.workingpermit.model.OtpCode;
+import com.datacenter.workingpermit.repository.OtpCodeRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.PersistenceExceptionTranslationRepositoryProxyPostProcessor;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against an in-memory H2 with only the otp_codes table, with two store
+ * instances standing in for two nodes sharing the database.
+ */
+class DatabaseOtpStoreTest {
+
+    private static final long MINUTE = 60_000;
+
+    private HikariDataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private JpaTransactionManager transactionManager;
+    private OtpCodeRepository repository;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:otp-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        dataSource = new HikariDataSource(config);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(OtpCode.class.getName()));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // As in the application, so a code clash surfaces as DataIntegrityViolationException
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("jpaDialect", new HibernateJpaDialect());
+        JpaRepositoryFactory repositoryFactory =
+                new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        repositoryFactory.addRepositoryProxyPostProcessor(
+                new PersistenceExceptionTranslationRepositoryProxyPostProcessor(beanFactory));
+        repository = repositoryFactory.getRepository(OtpCodeRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+        dataSource.close();
+    }
+
+    @Test
+    void putRejectsACodeAnotherPermitHoldsUntilItExpires() {
+        DatabaseOtpStore node = newStore();
+        DatabaseOtpStore other = newStore();
+        long now = System.currentTimeMillis();
+
+        assertThat(node.put(1, "111111", now + MINUTE)).isTrue();
+        assertThat(other.put(2, "111111", now + MINUTE)).isFalse();
+        assertThat(other.findPermitId("111111")).isEqualTo(1);
+        assertThat(other.getExpiresAt(2)).isZero();
+
+        assertThat(node.put(3, "222222", now - 1)).isTrue();
+        assertThat(other.put(4, "222222", now + MINUTE)).isTrue();
+        assertThat(node.findPermitId("222222")).isEqualTo(4);
+    }
+
+    @Test
+    void codeClashDoesNotRollBackTheCallersTransaction() {
+        DatabaseOtpStore node = newStore();
+        long now = System.currentTimeMillis();
+        node.put(1, "111111", now + MINUTE);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(node.put(2, "111111", now + MINUTE)).isFalse();
+            node.remove(1);
+        });
+
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void codeIsConsumedOnceAcrossNodes() {
+        DatabaseOtpStore node = newStore();
+        DatabaseOtpStore other = newStore();
+        node.put(1, "123456", System.currentTimeMillis() + MINUTE);
+
+        assertThat(node.verify(1, "654321")).isFalse();
+        assertThat(node.verify(1, "123456")).isTrue();
+        assertThat(other.verify(1, "123456")).isFalse();
+        assertThat(node.verify(1, "123456")).isFalse();
+        assertThat(node.findPermitId("123456")).isEqualTo(-1);
+    }
+
+    @Test
+    void consumedCodeComesBackWhenTheCallerRollsBack() {
+        DatabaseOtpStore node = newStore();
+        node.put(1, "123456", System.currentTimeMillis() + MINUTE);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(node.verify(1, "123456")).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(node.verify(1, "123456")).isTrue();
+        assertThat(node.verify(1, "123456")).isFalse();
+    }
+
+    @Test
+    void codeLookupsAreServedFromTheNearCacheUntilThisNodeChangesThePermit() {
+        DatabaseOtpStore node = newStore();
+        node.put(1, "123456", System.currentTimeMillis() + MINUTE);
+        assertThat(node.findPermitId("123456")).isEqualTo(1);
+
+        // Rows deleted behind the store's back, as another node would
+        transactionTemplate.executeWithoutResult(status -> repository.deleteAll());
+        assertThat(node.findPermitId("123456")).isEqualTo(1);
+        assertThat(node.getExpiresAt(1)).isPositive();
+
+        node.remove(1);
+        assertThat(node.findPermitId("123456")).isEqualTo(-1);
+        assertThat(node.getExpiresAt(1)).isZero();
+    }
+
+    @Test
+    void replacedCodeNoLongerResolves() {
+        DatabaseOtpStore node = newStore();
+        long now = System.currentTimeMillis();
+        node.put(1, "111111", now + MINUTE);
+        assertThat(node.findPermitId("111111")).isEqualTo(1);
+
+        node.put(1, "222222", now + MINUTE);
+
+        assertThat(node.findPermitId("111111")).isEqualTo(-1);
+        assertThat(node.findPermitId("222222")).isEqualTo(1);
+    }
+
+    private DatabaseOtpStore newStore() {
+        DatabaseOtpStore store = new DatabaseOtpStore(repository, transactionManager);
+        // Long enough that a cached answer never times out during a test
+        ReflectionTestUtils.setField(store, "nearCacheTtlMs", 10 * MINUTE);
+        ReflectionTestUtils.setField(store, "nearCacheMaxSize", 100);
+        store.init();
+        return store;
+    }
+}
@@ -0,0 +1,262 @@
+package com.datacenter.workingpermit.service.otp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the store and a plain map reference model with the same random
+ * operations on a simulated clock. Clock steps and expiry offsets are spread
+ * so entries land on every wheel level and the overflow list, and long idle
+ * jumps take the rebuild path.
+ */
+class InMemoryOtpStoreTest {
+
+    private static final long SECOND = 1000;
+    private static final long HOUR = 3600 * SECOND;
+    private static final long DAY = 24 * HOUR;
+
+    private static final int OPERATIONS = 500_000;
+    private static final int PERMITS = 300;
+    private static final int CODES = 400;
+
+    private long now = 1_700_000_000_123L;
+
+    @Test
+    void matchesReferenceModelUnderRandomOperations() {
+        for (long seed = 1; seed <= 4; seed++) {
+            runAgainstModel(new Random(seed));
+        }
+    }
+
+    @Test
+    void entriesAreReclaimedOnlyOnceExpired() {
+        InMemoryOtpStore store = newStore();
+        assertThat(store.put(1, "111111", now + 90 * SECOND)).isTrue();
+        assertThat(store.put(2, "222222", now + 2 * HOUR)).isTrue();
+        assertThat(store.put(3, "333333", now + 5 * DAY)).isTrue();
+
+        now += 89 * SECOND;
+        assertThat(store.purgeExpired()).isZero();
+        now += 2 * SECOND;
+        assertThat(store.purgeExpired()).isEqualTo(1);
+        assertThat(store.findPermitId("111111")).isEqualTo(-1);
+
+        now += 2 * HOUR;
+        assertThat(store.purgeExpired()).isEqualTo(1);
+        assertThat(store.getExpiresAt(3)).isPositive();
+
+        now += 5 * DAY;
+        assertThat(store.purgeExpired()).isEqualTo(1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void outstandingCodesStayUnique() {
+        InMemoryOtpStore store = newStore();
+        assertThat(store.put(1, "123456", now + 60 * SECOND)).isTrue();
+        assertThat(store.put(2, "123456", now + 60 * SECOND)).isFalse();
+        assertThat(store.findPermitId("123456")).isEqualTo(1);
+
+        assertThat(store.verify(1, "123456")).isTrue();
+        assertThat(store.verify(1, "123456")).isFalse();
+        assertThat(store.put(2, "123456", now + 60 * SECOND)).isTrue();
+        assertThat(store.findPermitId("123456")).isEqualTo(2);
+    }
+
+    @Test
+    void codeConsumedInRolledBackTransactionIsGivenBack() {
+        InMemoryOtpStore store = newStore();
+        store.put(1, "123456", now + 60 * SECOND);
+        store.put(2, "654321", now + 60 * SECOND);
+
+        assertThat(verifyInTransaction(store, 1, "123456", TransactionSynchronization.STATUS_ROLLED_BACK)).isTrue();
+        assertThat(store.findPermitId("123456")).isEqualTo(1);
+
+        assertThat(verifyInTransaction(store, 2, "654321", TransactionSynchronization.STATUS_COMMITTED)).isTrue();
+        assertThat(store.findPermitId("654321")).isEqualTo(-1);
+    }
+
+    @Test
+    void rollbackDoesNotOverwriteANewerCode() {
+        InMemoryOtpStore store = newStore();
+        store.put(1, "123456", now + 60 * SECOND);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(store.verify(1, "123456")).isTrue();
+            store.put(1, "777777", now + 60 * SECOND);
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(store.findPermitId("777777")).isEqualTo(1);
+        assertThat(store.findPermitId("123456")).isEqualTo(-1);
+    }
+
+    private static boolean verifyInTransaction(InMemoryOtpStore store, long permitId, String code, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            boolean verified = store.verify(permitId, code);
+            complete(status);
+            return verified;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+    }
+
+    private void runAgainstModel(Random random) {
+        InMemoryOtpStore store = newStore();
+        Map<Long, ModelEntry> model = new HashMap<>();
+
+        for (int op = 0; op < OPERATIONS; op++) {
+            long permitId = random.nextInt(PERMITS);
+            String code = String.format("%06d", random.nextInt(CODES));
+            int choice = random.nextInt(100);
+
+            if (choice < 30) {
+                long expiresAt = now + expiryOffset(random);
+                boolean stored = store.put(permitId, code, expiresAt);
+                assertThat(stored).as("put at op %d", op).isEqualTo(modelPut(model, permitId, code, expiresAt));
+            } else if (choice < 45) {
+                // Mostly the right code, so verification succeeds often enough to matter
+                ModelEntry entry = model.get(permitId);
+                String attempt = entry != null && random.nextInt(4) > 0 ? entry.code : code;
+                assertThat(store.verify(permitId, attempt)).as("verify at op %d", op)
+                        .isEqualTo(modelVerify(model, permitId, attempt));
+            } else if (choice < 52) {
+                store.remove(permitId);
+                model.remove(permitId);
+            } else if (choice < 67) {
+                assertThat(store.getExpiresAt(permitId)).as("getExpiresAt at op %d", op)
+                        .isEqualTo(modelExpiresAt(model, permitId));
+            } else if (choice < 82) {
+                assertThat(store.findPermitId(code)).as("findPermitId at op %d", op)
+                        .isEqualTo(modelFindPermitId(model, code));
+            } else if (choice < 87) {
+                assertThat(store.purgeExpired()).isNotNegative();
+                assertReclaimed(store, model, op);
+            } else {
+                now += clockStep(random);
+            }
+        }
+
+        now += 10 * DAY;
+        store.purgeExpired();
+        assertThat(store.size()).isZero();
+    }
+
+    /**
+     * After a purge every live entry must still be held and every entry whose
+     * expiry tick has passed must be gone; entries that expired within the
+     * current second may go either way.
+     */
+    private void assertReclaimed(InMemoryOtpStore store, Map<Long, ModelEntry> model, int op) {
+        long nowTick = now / SECOND;
+        int live = 0;
+        int pending = 0;
+        for (ModelEntry entry : model.values()) {
+            if (entry.expiresAt > now) {
+                live++;
+            } else if ((entry.expiresAt + SECOND - 1) / SECOND > nowTick) {
+                pending++;
+            }
+        }
+        assertThat(store.size()).as("size after purge at op %d", op).isBetween(live, live + pending);
+    }
+
+    private boolean modelPut(Map<Long, ModelEntry> model, long permitId, String code, long expiresAt) {
+        Long holder = null;
+        for (Map.Entry<Long, ModelEntry> entry : model.entrySet()) {
+            if (entry.getValue().code.equals(code)) {
+                holder = entry.getKey();
+            }
+        }
+        if (holder != null && holder != permitId && model.get(holder).expiresAt > now) {
+            return false;
+        }
+        if (holder != null) {
+            model.remove(holder);
+        }
+        model.remove(permitId);
+        if (expiresAt > now) {
+            model.put(permitId, new ModelEntry(code, expiresAt));
+        }
+        return true;
+    }
+
+    private boolean modelVerify(Map<Long, ModelEntry> model, long permitId, String code) {
+        ModelEntry entry = model.get(permitId);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expiresAt <= now) {
+            model.remove(permitId);
+            return false;
+        }
+        if (!entry.code.equals(code)) {
+            return false;
+        }
+        model.remove(permitId);
+        return true;
+    }
+
+    private long modelExpiresAt(Map<Long, ModelEntry> model, long permitId) {
+        ModelEntry entry = model.get(permitId);
+        return entry != null && entry.expiresAt > now ? entry.expiresAt : 0;
+    }
+
+    private long modelFindPermitId(Map<Long, ModelEntry> model, String code) {
+        for (Map.Entry<Long, ModelEntry> entry : model.entrySet()) {
+            if (entry.getValue().code.equals(code) && entry.getValue().expiresAt > now) {
+                return entry.getKey();
+            }
+        }
+        return -1;
+    }
+
+    // Spread over level 0 (< 64 s), level 1 (< ~73 min), level 2 (< ~3 days) and overflow
+    private static long expiryOffset(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> random.nextInt(2000) - 1000;
+            case 1 -> random.nextInt(64) * SECOND + random.nextInt(1000);
+            case 2 -> random.nextInt(4096) * SECOND + random.nextInt(1000);
+            case 3 -> (long) (random.nextDouble() * 3 * DAY);
+            case 4 -> 3 * DAY + (long) (random.nextDouble() * 4 * DAY);
+            default -> 300 * SECOND;
+        };
+    }
+
+    // Mostly small steps so the wheel turns tick by tick; rare long idles trigger a rebuild
+    private static long clockStep(Random random) {
+        int choice = random.nextInt(1000);
+        if (choice < 700) {
+            return random.nextInt(1500);
+        } else if (choice < 950) {
+            return random.nextInt(120) * SECOND + random.nextInt(1000);
+        } else if (choice < 998) {
+            return (long) (random.nextDouble() * 6 * HOUR);
+        }
+        return 3 * DAY + (long) (random.nextDouble() * 2 * DAY);
+    }
+
+    private InMemoryOtpStore newStore() {
+        return new InMemoryOtpStore(new DefaultListableBeanFactory().getBeanProvider(OtpStoreListener.class),
+                () -> now);
+    }
+
+    private record ModelEntry(String code, long expiresAt) {
+    }
+}